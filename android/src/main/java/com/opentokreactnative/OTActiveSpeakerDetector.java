@@ -0,0 +1,146 @@
+package com.opentokreactnative;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Ranks the subscribers of a session by their audio energy over a sliding
+ * window. Streams join the ranking above an entry threshold, leave it below a
+ * lower exit threshold, and only overtake the stream ranked ahead of them by a
+ * clear margin, so the ranking does not flap between similar speakers.
+ */
+public class OTActiveSpeakerDetector {
+
+    private static final int WINDOW = 10;
+    private static final long EVALUATION_INTERVAL = 300;
+    private static final float ENTER_THRESHOLD = 0.01f;
+    private static final float EXIT_THRESHOLD = 0.004f;
+    private static final float OVERTAKE_RATIO = 1.3f;
+
+    private final HashMap<String, Integer> slots = new HashMap<>();
+    private String[] ids = new String[8];
+    private float[] samples = new float[8 * WINDOW];
+    private float[] energies = new float[8];
+    private int[] positions = new int[8];
+    private int count = 0;
+    private long lastEvaluationTime = 0;
+    private boolean dirty = false;
+    private List<String> ranking = new ArrayList<>();
+
+    /**
+     * Records an audio level for a stream.
+     * @return true when the ranking changed and should be reported.
+     */
+    public synchronized boolean update(String streamId, float audioLevel) {
+
+        Integer slot = slots.get(streamId);
+        if (slot == null) {
+            if (count == ids.length) {
+                grow();
+            }
+            slot = count++;
+            slots.put(streamId, slot);
+            ids[slot] = streamId;
+        }
+        int index = slot * WINDOW + positions[slot];
+        float energy = audioLevel * audioLevel;
+        energies[slot] = Math.max(0, energies[slot] + energy - samples[index]);
+        samples[index] = energy;
+        positions[slot] = (positions[slot] + 1) % WINDOW;
+
+        long now = SystemClock.elapsedRealtime();
+        if (!dirty && now - lastEvaluationTime < EVALUATION_INTERVAL) {
+            return false;
+        }
+        lastEvaluationTime = now;
+        dirty = false;
+        return evaluate();
+    }
+
+    public synchronized void remove(String streamId) {
+
+        Integer slot = slots.remove(streamId);
+        if (slot == null) {
+            return;
+        }
+        int last = --count;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            energies[slot] = energies[last];
+            positions[slot] = positions[last];
+            System.arraycopy(samples, last * WINDOW, samples, slot * WINDOW, WINDOW);
+            slots.put(ids[slot], slot);
+        }
+        ids[last] = null;
+        energies[last] = 0;
+        positions[last] = 0;
+        for (int i = last * WINDOW; i < (last + 1) * WINDOW; i++) {
+            samples[i] = 0;
+        }
+        if (ranking.contains(streamId)) {
+            dirty = true;
+        }
+    }
+
+    public synchronized List<String> getRanking() {
+
+        return new ArrayList<>(ranking);
+    }
+
+    public synchronized float getEnergy(String streamId) {
+
+        Integer slot = slots.get(streamId);
+        return slot != null ? energies[slot] / WINDOW : 0;
+    }
+
+    private boolean evaluate() {
+
+        List<String> next = new ArrayList<>();
+        for (String streamId : ranking) {
+            Integer slot = slots.get(streamId);
+            if (slot != null && energies[slot] / WINDOW >= EXIT_THRESHOLD) {
+                next.add(streamId);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (!next.contains(ids[i]) && energies[i] / WINDOW >= ENTER_THRESHOLD) {
+                next.add(ids[i]);
+            }
+        }
+        for (int i = 1; i < next.size(); i++) {
+            for (int j = i; j > 0; j--) {
+                float ahead = energies[slots.get(next.get(j - 1))];
+                float behind = energies[slots.get(next.get(j))];
+                if (behind <= ahead * OVERTAKE_RATIO) {
+                    break;
+                }
+                next.set(j, next.set(j - 1, next.get(j)));
+            }
+        }
+        if (next.equals(ranking)) {
+            return false;
+        }
+        ranking = next;
+        return true;
+    }
+
+    private void grow() {
+
+        int capacity = ids.length * 2;
+        String[] newIds = new String[capacity];
+        float[] newSamples = new float[capacity * WINDOW];
+        float[] newEnergies = new float[capacity];
+        int[] newPositions = new int[capacity];
+        System.arraycopy(ids, 0, newIds, 0, count);
+        System.arraycopy(samples, 0, newSamples, 0, count * WINDOW);
+        System.arraycopy(energies, 0, newEnergies, 0, count);
+        System.arraycopy(positions, 0, newPositions, 0, count);
+        ids = newIds;
+        samples = newSamples;
+        energies = newEnergies;
+        positions = newPositions;
+    }
+}
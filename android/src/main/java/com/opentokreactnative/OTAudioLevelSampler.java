@@ -0,0 +1,126 @@
+package com.opentokreactnative;
+
+import android.os.SystemClock;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.HashMap;
+
+/**
+ * Keeps the latest smoothed audio level of every publisher and subscriber in
+ * a session and decides when a combined snapshot should be emitted, so JS
+ * receives one rate-limited event instead of one event per stream per callback.
+ * Levels recorded while the rate cap holds back a snapshot are sent by one
+ * trailing snapshot, so the last levels before a stream goes quiet are not lost.
+ */
+public class OTAudioLevelSampler {
+
+    public static final int DEFAULT_RATE = 10;
+    private static final float SMOOTHING = 0.5f;
+
+    private final long minInterval;
+    private final HashMap<String, Integer> slots = new HashMap<>();
+    private String[] ids = new String[8];
+    private float[] levels = new float[8];
+    private int count = 0;
+    private long lastEmitTime = 0;
+    private boolean pending = false;
+    private boolean trailingScheduled = false;
+
+    public OTAudioLevelSampler(int rate) {
+
+        this.minInterval = 1000 / (rate > 0 ? rate : DEFAULT_RATE);
+    }
+
+    /**
+     * Records a level for the given publisher or stream id.
+     * @return true when enough time has passed since the last snapshot.
+     */
+    public synchronized boolean update(String id, float level) {
+
+        Integer slot = slots.get(id);
+        if (slot == null) {
+            if (count == ids.length) {
+                grow();
+            }
+            slot = count++;
+            slots.put(id, slot);
+            ids[slot] = id;
+            levels[slot] = level;
+        } else {
+            levels[slot] += SMOOTHING * (level - levels[slot]);
+        }
+        long now = SystemClock.elapsedRealtime();
+        if (now - lastEmitTime < minInterval) {
+            pending = true;
+            return false;
+        }
+        lastEmitTime = now;
+        pending = false;
+        return true;
+    }
+
+    /**
+     * Claims the trailing snapshot for levels held back by the rate cap.
+     * @return the delay in ms after which it is due, or -1 when there is
+     * nothing held back or it is already scheduled.
+     */
+    public synchronized long scheduleTrailingSnapshot() {
+
+        if (!pending || trailingScheduled) {
+            return -1;
+        }
+        trailingScheduled = true;
+        return Math.max(0, lastEmitTime + minInterval - SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * @return true when levels held back by the rate cap have not been sent
+     * by a regular snapshot since the trailing snapshot was scheduled.
+     */
+    public synchronized boolean takeTrailingSnapshot() {
+
+        trailingScheduled = false;
+        if (!pending) {
+            return false;
+        }
+        pending = false;
+        lastEmitTime = SystemClock.elapsedRealtime();
+        return true;
+    }
+
+    public synchronized WritableMap snapshot() {
+
+        WritableMap audioLevels = Arguments.createMap();
+        for (int i = 0; i < count; i++) {
+            audioLevels.putDouble(ids[i], levels[i]);
+        }
+        return audioLevels;
+    }
+
+    public synchronized void remove(String id) {
+
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        int last = --count;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            levels[slot] = levels[last];
+            slots.put(ids[slot], slot);
+        }
+        ids[last] = null;
+    }
+
+    private void grow() {
+
+        String[] newIds = new String[ids.length * 2];
+        float[] newLevels = new float[levels.length * 2];
+        System.arraycopy(ids, 0, newIds, 0, count);
+        System.arraycopy(levels, 0, newLevels, 0, count);
+        ids = newIds;
+        levels = newLevels;
+    }
+}
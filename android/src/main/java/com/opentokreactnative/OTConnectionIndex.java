@@ -0,0 +1,99 @@
+package com.opentokreactnative;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+import com.opentok.android.Connection;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Connection index of a large session. Only the most recently used
+ * connections are kept for resolving signal targets, and joins and leaves
+ * are counted so they can be reported to JS as one periodic delta instead
+ * of an event per connection.
+ */
+public class OTConnectionIndex {
+
+    public static final int DEFAULT_CAPACITY = 1000;
+    public static final int DEFAULT_COUNT_INTERVAL = 1000;
+
+    private final int capacity;
+    private final int countInterval;
+    private final LinkedHashMap<String, Connection> connections;
+    private int connectionCount = 0;
+    private int createdCount = 0;
+    private int destroyedCount = 0;
+    private boolean countScheduled = false;
+
+    public OTConnectionIndex(int capacity, int countInterval) {
+
+        this.capacity = capacity > 0 ? capacity : DEFAULT_CAPACITY;
+        this.countInterval = countInterval > 0 ? countInterval : DEFAULT_COUNT_INTERVAL;
+        this.connections = new LinkedHashMap<String, Connection>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Connection> eldest) {
+                return size() > OTConnectionIndex.this.capacity;
+            }
+        };
+    }
+
+    public int getCountInterval() {
+
+        return this.countInterval;
+    }
+
+    public synchronized void add(Connection connection) {
+
+        connections.put(connection.getConnectionId(), connection);
+        connectionCount++;
+        createdCount++;
+    }
+
+    public synchronized void remove(String connectionId) {
+
+        connections.remove(connectionId);
+        connectionCount = Math.max(0, connectionCount - 1);
+        destroyedCount++;
+    }
+
+    public synchronized Connection get(String connectionId) {
+
+        return connections.get(connectionId);
+    }
+
+    /**
+     * Re-inserts a connection resolved outside the index without counting it
+     * as a new join.
+     */
+    public synchronized void cache(Connection connection) {
+
+        connections.put(connection.getConnectionId(), connection);
+    }
+
+    /**
+     * Returns true when the caller should schedule a count event, i.e. when
+     * none is pending already.
+     */
+    public synchronized boolean scheduleCount() {
+
+        if (countScheduled) {
+            return false;
+        }
+        countScheduled = true;
+        return true;
+    }
+
+    public synchronized WritableMap prepareCountChange(String sessionId) {
+
+        WritableMap countInfo = Arguments.createMap();
+        countInfo.putString("sessionId", sessionId);
+        countInfo.putInt("connectionCount", connectionCount);
+        countInfo.putInt("created", createdCount);
+        countInfo.putInt("destroyed", destroyedCount);
+        createdCount = 0;
+        destroyedCount = 0;
+        countScheduled = false;
+        return countInfo;
+    }
+}
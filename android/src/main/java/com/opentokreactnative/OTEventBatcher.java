@@ -0,0 +1,102 @@
+package com.opentokreactnative;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReactContext;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+/**
+ * Buffers native events and delivers them to JS as a single array once per
+ * flush interval, so a burst of SDK callbacks costs one bridge crossing.
+ * The JS side (see src/OT.js) re-dispatches each entry to its listeners.
+ */
+public class OTEventBatcher {
+
+    public static final String BATCH_EVENT = "otrn:eventBatch";
+    public static final int DEFAULT_INTERVAL = 16;
+
+    private final ReactContext reactContext;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Object lock = new Object();
+    private WritableArray pendingEvents;
+    private boolean flushScheduled = false;
+    private volatile boolean enabled = false;
+    private volatile int interval = DEFAULT_INTERVAL;
+
+    private final Runnable flush = new Runnable() {
+        @Override
+        public void run() {
+
+            WritableArray events;
+            synchronized (lock) {
+                events = pendingEvents;
+                pendingEvents = null;
+                flushScheduled = false;
+            }
+            if (events != null) {
+                reactContext
+                        .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                        .emit(BATCH_EVENT, events);
+            }
+        }
+    };
+
+    public OTEventBatcher(ReactContext reactContext) {
+
+        this.reactContext = reactContext;
+    }
+
+    public void setEnabled(boolean enabled, int interval) {
+
+        this.interval = interval > 0 ? interval : DEFAULT_INTERVAL;
+        this.enabled = enabled;
+        if (!enabled) {
+            handler.removeCallbacks(flush);
+            flush.run();
+        }
+    }
+
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    public void enqueue(String eventName, @Nullable WritableMap eventData) {
+
+        WritableMap event = Arguments.createMap();
+        event.putString("name", eventName);
+        if (eventData != null) {
+            event.putMap("data", eventData);
+        } else {
+            event.putNull("data");
+        }
+        enqueue(event);
+    }
+
+    public void enqueue(String eventName, String eventString) {
+
+        WritableMap event = Arguments.createMap();
+        event.putString("name", eventName);
+        event.putString("data", eventString);
+        enqueue(event);
+    }
+
+    private void enqueue(WritableMap event) {
+
+        synchronized (lock) {
+            if (pendingEvents == null) {
+                pendingEvents = Arguments.createArray();
+            }
+            pendingEvents.pushMap(event);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                handler.postDelayed(flush, interval);
+            }
+        }
+    }
+}
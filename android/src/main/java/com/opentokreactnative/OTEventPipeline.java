@@ -0,0 +1,53 @@
+package com.opentokreactnative;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+/**
+ * Single-consumer worker that builds and emits the JS events of one session.
+ * SDK callbacks arrive on the main looper; they only hand a small task to the
+ * pipeline so lookups, payload building and bridge emits run off the UI thread,
+ * in the order the callbacks were received.
+ */
+public class OTEventPipeline {
+
+    private final HandlerThread thread;
+    private final Handler handler;
+    private volatile boolean running = true;
+
+    public OTEventPipeline(String sessionId) {
+
+        thread = new HandlerThread("OTRN-events-" + sessionId, Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+    }
+
+    public void post(Runnable task) {
+
+        if (!running || !handler.post(task)) {
+            task.run();
+        }
+    }
+
+    public void postDelayed(Runnable task, long delayMillis) {
+
+        if (running) {
+            handler.postDelayed(task, delayMillis);
+        }
+    }
+
+    /**
+     * Stops the worker once every task already posted has run.
+     */
+    public void quit() {
+
+        running = false;
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                thread.quit();
+            }
+        });
+    }
+}
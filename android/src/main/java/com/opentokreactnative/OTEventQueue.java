@@ -0,0 +1,174 @@
+package com.opentokreactnative;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReactContext;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * Bounded queue between the native event producers and the bridge.
+ * Events are drained from the JS queue thread, so while JS is stalled they
+ * back up here, where each event type's policy keeps the backlog bounded:
+ * lifecycle events are always delivered, the latest value per key replaces
+ * stale ones and signals are kept in order up to a fixed capacity.
+ * A coalesced event keeps the queue position of the first value it
+ * replaced, so it is delivered no later than it would have been, but may
+ * now precede events enqueued after its newest value.
+ *
+ * While the bridge has no active instance, such as during a reload, the
+ * drain is retried until one is available again.
+ */
+public class OTEventQueue {
+
+    public static final int POLICY_LIFECYCLE = 0;
+    public static final int POLICY_LATEST = 1;
+    public static final int POLICY_FIFO = 2;
+    public static final int FIFO_CAPACITY = 100;
+    private static final int DRAIN_RETRY_DELAY = 100;
+    private static final int MAX_DRAIN_RETRIES = 50;
+
+    public interface Sink {
+        void deliver(String eventName, @Nullable Object eventData);
+    }
+
+    private static class Entry {
+        final String eventName;
+        final int policy;
+        final String key;
+        Object eventData;
+
+        Entry(String eventName, @Nullable Object eventData, int policy, @Nullable String key) {
+            this.eventName = eventName;
+            this.eventData = eventData;
+            this.policy = policy;
+            this.key = key;
+        }
+    }
+
+    private final ReactContext reactContext;
+    private final Sink sink;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Object lock = new Object();
+    private ArrayDeque<Entry> pendingEvents = new ArrayDeque<>();
+    private final HashMap<String, Entry> latestEvents = new HashMap<>();
+    private int pendingFifoEvents = 0;
+    private boolean drainScheduled = false;
+    private int drainRetries = 0;
+    private long droppedCount = 0;
+    private long coalescedCount = 0;
+
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+
+            ArrayDeque<Entry> events;
+            synchronized (lock) {
+                events = pendingEvents;
+                pendingEvents = new ArrayDeque<>();
+                latestEvents.clear();
+                pendingFifoEvents = 0;
+                drainScheduled = false;
+            }
+            for (Entry entry : events) {
+                sink.deliver(entry.eventName, entry.eventData);
+            }
+        }
+    };
+
+    private final Runnable retryDrain = new Runnable() {
+        @Override
+        public void run() {
+
+            synchronized (lock) {
+                drainScheduled = false;
+                if (!pendingEvents.isEmpty()) {
+                    scheduleDrain();
+                }
+            }
+        }
+    };
+
+    public OTEventQueue(ReactContext reactContext, Sink sink) {
+
+        this.reactContext = reactContext;
+        this.sink = sink;
+    }
+
+    public void enqueue(String eventName, @Nullable Object eventData, int policy, @Nullable String key) {
+
+        synchronized (lock) {
+            if (policy == POLICY_LATEST) {
+                String latestKey = key != null ? eventName + ":" + key : eventName;
+                Entry pending = latestEvents.get(latestKey);
+                if (pending != null) {
+                    // Keeps the position of the pending entry, see the class comment
+                    pending.eventData = eventData;
+                    coalescedCount++;
+                    return;
+                }
+                Entry entry = new Entry(eventName, eventData, policy, latestKey);
+                latestEvents.put(latestKey, entry);
+                pendingEvents.add(entry);
+            } else {
+                if (policy == POLICY_FIFO) {
+                    if (pendingFifoEvents >= FIFO_CAPACITY) {
+                        dropOldestFifoEvent();
+                    }
+                    pendingFifoEvents++;
+                }
+                pendingEvents.add(new Entry(eventName, eventData, policy, key));
+            }
+            scheduleDrain();
+        }
+    }
+
+    public WritableMap getStats() {
+
+        WritableMap stats = Arguments.createMap();
+        synchronized (lock) {
+            stats.putInt("pending", pendingEvents.size());
+            stats.putDouble("dropped", droppedCount);
+            stats.putDouble("coalesced", coalescedCount);
+        }
+        return stats;
+    }
+
+    private void dropOldestFifoEvent() {
+
+        Iterator<Entry> iterator = pendingEvents.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().policy == POLICY_FIFO) {
+                iterator.remove();
+                pendingFifoEvents--;
+                droppedCount++;
+                return;
+            }
+        }
+    }
+
+    private void scheduleDrain() {
+
+        if (drainScheduled) {
+            return;
+        }
+        drainScheduled = true;
+        if (reactContext.hasActiveCatalystInstance()) {
+            drainRetries = 0;
+            reactContext.runOnJSQueueThread(drain);
+        } else if (drainRetries < MAX_DRAIN_RETRIES) {
+            drainRetries++;
+            handler.postDelayed(retryDrain, DRAIN_RETRY_DELAY);
+        } else {
+            // Gives up until the next event is enqueued, which starts a new round of retries
+            drainScheduled = false;
+            drainRetries = 0;
+        }
+    }
+}
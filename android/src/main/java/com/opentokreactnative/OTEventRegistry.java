@@ -0,0 +1,45 @@
+package com.opentokreactnative;
+
+import com.facebook.react.bridge.ReadableArray;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reference-counted set of the event names JS is currently listening to.
+ * Lookups are lock free so SDK callback threads can check for listeners
+ * before building a payload; registration changes are serialized.
+ */
+public class OTEventRegistry {
+
+    private final ConcurrentHashMap<String, Integer> eventCounts = new ConcurrentHashMap<>();
+
+    public synchronized void addEvents(ReadableArray events) {
+
+        for (int i = 0; i < events.size(); i++) {
+            String eventName = events.getString(i);
+            Integer count = eventCounts.get(eventName);
+            eventCounts.put(eventName, count == null ? 1 : count + 1);
+        }
+    }
+
+    public synchronized void removeEvents(ReadableArray events) {
+
+        for (int i = 0; i < events.size(); i++) {
+            String eventName = events.getString(i);
+            Integer count = eventCounts.get(eventName);
+            if (count == null) {
+                continue;
+            }
+            if (count <= 1) {
+                eventCounts.remove(eventName);
+            } else {
+                eventCounts.put(eventName, count - 1);
+            }
+        }
+    }
+
+    public boolean hasListeners(String eventName) {
+
+        return eventName != null && eventCounts.containsKey(eventName);
+    }
+}
@@ -0,0 +1,98 @@
+package com.opentokreactnative;
+
+import java.util.ArrayDeque;
+
+/**
+ * A small pool of equally sized pixel buffers that the screen capturer cycles
+ * through, so a steady-state share allocates nothing per frame. Buffers of a
+ * previous frame size are dropped as they come back, and clear() drops every
+ * pooled buffer once capture stops.
+ */
+public class OTFrameBufferPool {
+
+    private static final int POOL_SIZE = 3;
+
+    private final ArrayDeque<int[]> freeBuffers = new ArrayDeque<>(POOL_SIZE);
+    private int bufferLength = 0;
+    private long allocations = 0;
+    private long reuses = 0;
+    private long liveBytes = 0;
+    private long peakBytes = 0;
+
+    /**
+     * Returns a buffer of exactly length pixels, reusing a pooled one if any.
+     */
+    public synchronized int[] acquire(int length) {
+
+        if (length != bufferLength) {
+            dropFreeBuffers();
+            bufferLength = length;
+        }
+        int[] buffer = freeBuffers.poll();
+        if (buffer != null) {
+            reuses++;
+            return buffer;
+        }
+        allocations++;
+        trackAllocation(4L * length);
+        return new int[length];
+    }
+
+    public synchronized void release(int[] buffer) {
+
+        if (buffer.length == bufferLength && freeBuffers.size() < POOL_SIZE) {
+            freeBuffers.push(buffer);
+        } else {
+            liveBytes -= 4L * buffer.length;
+        }
+    }
+
+    public synchronized void clear() {
+
+        dropFreeBuffers();
+        bufferLength = 0;
+    }
+
+    /**
+     * Accounts for memory held alongside the pooled buffers, such as the
+     * bitmap frames are drawn into, so peak usage covers the whole capture.
+     */
+    public synchronized void trackAllocation(long bytes) {
+
+        liveBytes += bytes;
+        peakBytes = Math.max(peakBytes, liveBytes);
+    }
+
+    public synchronized void trackRelease(long bytes) {
+
+        liveBytes -= bytes;
+    }
+
+    public synchronized long getAllocations() {
+
+        return allocations;
+    }
+
+    public synchronized long getReuses() {
+
+        return reuses;
+    }
+
+    public synchronized long getLiveBytes() {
+
+        return liveBytes;
+    }
+
+    public synchronized long getPeakBytes() {
+
+        return peakBytes;
+    }
+
+    private void dropFreeBuffers() {
+
+        for (int[] buffer : freeBuffers) {
+            liveBytes -= 4L * buffer.length;
+        }
+        freeBuffers.clear();
+    }
+}
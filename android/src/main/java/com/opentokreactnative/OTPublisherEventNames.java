@@ -0,0 +1,24 @@
+package com.opentokreactnative;
+
+/**
+ * Fully qualified JS event names of a publisher, built once when the publisher
+ * is initialized so the SDK callbacks do not concatenate strings on every call.
+ */
+public final class OTPublisherEventNames {
+
+    private static final String publisherPreface = "publisher:";
+
+    public final String onStreamCreated;
+    public final String onStreamDestroyed;
+    public final String onError;
+    public final String onAudioLevelUpdated;
+
+    public OTPublisherEventNames(String publisherId) {
+
+        String prefix = publisherId + ":" + publisherPreface;
+        onStreamCreated = (prefix + "onStreamCreated").intern();
+        onStreamDestroyed = (prefix + "onStreamDestroyed").intern();
+        onError = (prefix + "onError").intern();
+        onAudioLevelUpdated = (prefix + "onAudioLevelUpdated").intern();
+    }
+}
@@ -0,0 +1,62 @@
+package com.opentokreactnative;
+
+import com.opentok.android.PublisherKit;
+
+/**
+ * Arbitrates a publisher's video between what JS requested and the
+ * background suspension, the publisher side of OTVideoGate. While suspended
+ * the requested value is only recorded, so resuming restores whatever JS
+ * asked for last instead of the state saved when the app was paused.
+ */
+public class OTPublisherVideoGate {
+
+    private final PublisherKit publisher;
+    private boolean requested;
+    private boolean suspended = false;
+
+    public OTPublisherVideoGate(PublisherKit publisher, boolean requested) {
+
+        this.publisher = publisher;
+        this.requested = requested;
+    }
+
+    public synchronized void setRequested(boolean requested) {
+
+        this.requested = requested;
+        if (!suspended) {
+            publisher.setPublishVideo(requested);
+        }
+    }
+
+    public synchronized boolean isRequested() {
+
+        return this.requested;
+    }
+
+    /**
+     * Stops video and capture until resume(). Audio keeps flowing.
+     */
+    public synchronized void suspend() {
+
+        if (suspended) {
+            return;
+        }
+        suspended = true;
+        publisher.setPublishVideo(false);
+        if (publisher.getCapturer() != null) {
+            publisher.getCapturer().onPause();
+        }
+    }
+
+    public synchronized void resume() {
+
+        if (!suspended) {
+            return;
+        }
+        suspended = false;
+        if (publisher.getCapturer() != null) {
+            publisher.getCapturer().onResume();
+        }
+        publisher.setPublishVideo(requested);
+    }
+}
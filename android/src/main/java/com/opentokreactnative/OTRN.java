@@ -1,13 +1,17 @@
 package com.opentokreactnative;
 
+import android.support.annotation.Nullable;
 import android.widget.FrameLayout;
 
 import com.opentok.android.Connection;
 import com.opentok.android.Publisher;
+import com.opentok.android.PublisherKit;
 import com.opentok.android.Session;
 import com.opentok.android.Stream;
 import com.opentok.android.Subscriber;
+import com.opentok.android.SubscriberKit;
 
+import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.facebook.react.bridge.Callback;
@@ -31,6 +35,16 @@ public class OTRN {
     private ConcurrentHashMap<String, Callback> sessionConnectCallbacks = new ConcurrentHashMap<>();
     private ConcurrentHashMap<String, Callback> sessionDisconnectCallbacks = new ConcurrentHashMap<>();
     private ConcurrentHashMap<String, Connection> connections = new ConcurrentHashMap<>();
+    // Reverse indexes so SDK callbacks can resolve their JS ids without scanning the maps above
+    private ConcurrentHashMap<SubscriberKit, String> subscriberStreamIds = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<PublisherKit, String> publisherIds = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, OTSubscriberStats> subscriberStats = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, OTStreamDescriptor> streamDescriptors = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, OTSessionResources> sessionResources = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, OTVideoGate> videoGates = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, OTPublisherVideoGate> publisherVideoGates = new ConcurrentHashMap<>();
+    private OTSubscriberLayout.VisibilityListener subscriberVisibilityListener;
+    private OTSubscriberQuality subscriberQuality = new OTSubscriberQuality();
 
     public static synchronized OTRN getSharedState() {
 
@@ -100,5 +114,282 @@ public class OTRN {
         return this.sessions;
     }
 
+    public ConcurrentHashMap<SubscriberKit, String> getSubscriberStreamIds() {
+
+        return this.subscriberStreamIds;
+    }
+
+    public ConcurrentHashMap<PublisherKit, String> getPublisherIds() {
+
+        return this.publisherIds;
+    }
+
+    public ConcurrentHashMap<String, OTSubscriberStats> getSubscriberStats() {
+
+        return this.subscriberStats;
+    }
+
+    public ConcurrentHashMap<String, OTVideoGate> getVideoGates() {
+
+        return this.videoGates;
+    }
+
+    public ConcurrentHashMap<String, OTPublisherVideoGate> getPublisherVideoGates() {
+
+        return this.publisherVideoGates;
+    }
+
+    public OTSubscriberQuality getSubscriberQuality() {
+
+        return this.subscriberQuality;
+    }
+
+    public OTSubscriberLayout.VisibilityListener getSubscriberVisibilityListener() {
+
+        return this.subscriberVisibilityListener;
+    }
+
+    public void setSubscriberVisibilityListener(OTSubscriberLayout.VisibilityListener listener) {
+
+        this.subscriberVisibilityListener = listener;
+    }
+
+    public OTStreamDescriptor getStreamDescriptor(Stream stream, Session session) {
+
+        OTStreamDescriptor descriptor = this.streamDescriptors.get(stream.getStreamId());
+        if (descriptor != null) {
+            return descriptor;
+        }
+        OTStreamDescriptor created = new OTStreamDescriptor(stream, session);
+        descriptor = this.streamDescriptors.putIfAbsent(stream.getStreamId(), created);
+        return descriptor != null ? descriptor : created;
+    }
+
+    public void updateStreamDescriptor(String streamId, OTStreamDescriptor descriptor) {
+
+        this.streamDescriptors.put(streamId, descriptor);
+    }
+
+    public void removeStreamDescriptor(String streamId) {
+
+        this.streamDescriptors.remove(streamId);
+    }
+
+    public void addSubscriber(String sessionId, String streamId, Subscriber subscriber) {
+
+        this.subscribers.put(streamId, subscriber);
+        this.subscriberStreamIds.put(subscriber, streamId);
+        OTSessionResources resources = this.sessionResources.get(sessionId);
+        if (resources != null) {
+            resources.getSubscriberIds().add(streamId);
+        }
+    }
+
+    public Subscriber removeSubscriber(String streamId) {
+
+        Subscriber subscriber = this.subscribers.remove(streamId);
+        this.subscriberStats.remove(streamId);
+        this.videoGates.remove(streamId);
+        this.subscriberQuality.remove(streamId);
+        if (subscriber != null) {
+            this.subscriberStreamIds.remove(subscriber);
+            if (subscriber.getSession() != null) {
+                OTSessionResources resources = this.sessionResources.get(subscriber.getSession().getSessionId());
+                if (resources != null) {
+                    resources.getSubscriberIds().remove(streamId);
+                }
+            }
+        }
+        return subscriber;
+    }
+
+    public void addSubscriberStream(String sessionId, Stream stream) {
+
+        this.subscriberStreams.put(stream.getStreamId(), stream);
+        OTSessionResources resources = this.sessionResources.get(sessionId);
+        if (resources != null) {
+            resources.getStreamIds().add(stream.getStreamId());
+        }
+    }
+
+    public void removeSubscriberStream(String sessionId, String streamId) {
+
+        this.subscriberStreams.remove(streamId);
+        OTSessionResources resources = this.sessionResources.get(sessionId);
+        if (resources != null) {
+            resources.getStreamIds().remove(streamId);
+        }
+    }
+
+    public void addConnection(String sessionId, Connection connection) {
+
+        OTSessionResources resources = this.sessionResources.get(sessionId);
+        if (resources != null && resources.getConnectionIndex() != null) {
+            resources.getConnectionIndex().add(connection);
+            return;
+        }
+        this.connections.put(connection.getConnectionId(), connection);
+        if (resources != null) {
+            resources.getConnectionIds().add(connection.getConnectionId());
+        }
+    }
+
+    public void removeConnection(String sessionId, String connectionId) {
+
+        OTSessionResources resources = this.sessionResources.get(sessionId);
+        if (resources != null && resources.getConnectionIndex() != null) {
+            resources.getConnectionIndex().remove(connectionId);
+            return;
+        }
+        this.connections.remove(connectionId);
+        if (resources != null) {
+            resources.getConnectionIds().remove(connectionId);
+        }
+    }
+
+    /**
+     * Resolves a connection of the session. Connections that were never
+     * reported, e.g. with connection events suppressed, or that were evicted
+     * from a large session's index are looked up again through the session's
+     * streams and cached.
+     */
+    public Connection getConnection(String sessionId, String connectionId) {
+
+        Connection connection = this.connections.get(connectionId);
+        OTSessionResources resources = this.sessionResources.get(sessionId);
+        if (connection != null || resources == null) {
+            return connection;
+        }
+        OTConnectionIndex connectionIndex = resources.getConnectionIndex();
+        if (connectionIndex != null) {
+            connection = connectionIndex.get(connectionId);
+            if (connection != null) {
+                return connection;
+            }
+        }
+        for (String streamId : resources.getStreamIds()) {
+            Stream stream = this.subscriberStreams.get(streamId);
+            if (stream != null && stream.getConnection() != null
+                    && connectionId.equals(stream.getConnection().getConnectionId())) {
+                if (connectionIndex != null) {
+                    connectionIndex.cache(stream.getConnection());
+                } else {
+                    addConnection(sessionId, stream.getConnection());
+                }
+                return stream.getConnection();
+            }
+        }
+        return null;
+    }
+
+    public OTSessionResources getSessionResources(String sessionId) {
+
+        return this.sessionResources.get(sessionId);
+    }
+
+    public Collection<OTSessionResources> getAllSessionResources() {
+
+        return this.sessionResources.values();
+    }
+
+    public OTSessionResources addSessionResources(OTSessionResources resources) {
+
+        return this.sessionResources.put(resources.getSessionId(), resources);
+    }
+
+    /**
+     * Drops the session and every stream, subscriber, publisher, view
+     * container and connection it registered from the shared indexes.
+     * Views still attached to the dropped containers are left to the caller.
+     * When initSession already registered a newer session with the same id,
+     * only the entries the newer session does not own are dropped.
+     *
+     * @return whether the released session was still the registered one.
+     */
+    public boolean releaseSessionResources(Session session, @Nullable OTSessionResources resources) {
+
+        String sessionId = session.getSessionId();
+        boolean current = this.sessions.remove(sessionId, session);
+        if (current) {
+            this.androidOnTopMap.remove(sessionId);
+            this.androidZOrderMap.remove(sessionId);
+            this.sessionConnectCallbacks.remove(sessionId);
+            this.sessionDisconnectCallbacks.remove(sessionId);
+        }
+        if (resources == null) {
+            return current;
+        }
+        this.sessionResources.remove(sessionId, resources);
+        OTSessionResources newer = this.sessionResources.get(sessionId);
+        for (String streamId : resources.getSubscriberIds()) {
+            if (newer != null && newer.getSubscriberIds().contains(streamId)) {
+                continue;
+            }
+            Subscriber subscriber = this.subscribers.remove(streamId);
+            if (subscriber != null) {
+                this.subscriberStreamIds.remove(subscriber);
+            }
+            this.subscriberStats.remove(streamId);
+            this.videoGates.remove(streamId);
+            this.subscriberQuality.remove(streamId);
+            this.subscriberViewContainers.remove(streamId);
+        }
+        for (String publisherId : resources.getPublisherIds()) {
+            if (newer != null && newer.getPublisherIds().contains(publisherId)) {
+                continue;
+            }
+            Publisher publisher = this.publishers.remove(publisherId);
+            if (publisher != null) {
+                this.publisherIds.remove(publisher);
+            }
+            this.publisherViewContainers.remove(publisherId);
+            this.publisherVideoGates.remove(publisherId);
+        }
+        for (String streamId : resources.getStreamIds()) {
+            if (newer != null && newer.getStreamIds().contains(streamId)) {
+                continue;
+            }
+            this.subscriberStreams.remove(streamId);
+            this.streamDescriptors.remove(streamId);
+        }
+        for (String connectionId : resources.getConnectionIds()) {
+            if (newer != null && newer.getConnectionIds().contains(connectionId)) {
+                continue;
+            }
+            this.connections.remove(connectionId);
+        }
+        return current;
+    }
+
+    public void addPublisher(String publisherId, Publisher publisher) {
+
+        this.publishers.put(publisherId, publisher);
+        this.publisherIds.put(publisher, publisherId);
+    }
+
+    public void addSessionPublisher(String sessionId, String publisherId) {
+
+        OTSessionResources resources = this.sessionResources.get(sessionId);
+        if (resources != null) {
+            resources.getPublisherIds().add(publisherId);
+        }
+    }
+
+    public Publisher removePublisher(String publisherId) {
+
+        Publisher publisher = this.publishers.remove(publisherId);
+        this.publisherVideoGates.remove(publisherId);
+        if (publisher != null) {
+            this.publisherIds.remove(publisher);
+            if (publisher.getSession() != null) {
+                OTSessionResources resources = this.sessionResources.get(publisher.getSession().getSessionId());
+                if (resources != null) {
+                    resources.getPublisherIds().remove(publisherId);
+                }
+            }
+        }
+        return publisher;
+    }
+
     private OTRN() {}
 }
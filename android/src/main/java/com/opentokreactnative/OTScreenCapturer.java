@@ -3,70 +3,374 @@ package com.opentokreactnative;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.support.annotation.Nullable;
 import android.view.View;
 
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
 import com.opentok.android.BaseVideoCapturer;
 
+/**
+ * Captures a view for screen sharing. Frames are timed on a dedicated capture
+ * thread, only drawing the view happens on the UI thread, and pixel
+ * extraction and delivery to the SDK happen back on the capture thread.
+ * Frames identical to the previous one are not sent, except once every
+ * keepAliveInterval ms so the stream does not look stalled. The view is drawn
+ * scaled down so its long side fits maxDimension, and the frame rate moves
+ * between MIN_FPS and maxFps with the capture cost and how often the content
+ * changes. With a crop rectangle only that part of the view is drawn, so the
+ * capture cost follows the shared area.
+ */
 public class OTScreenCapturer extends BaseVideoCapturer {
 
-    private boolean capturing = false;
-    private View contentView;
-
-    private int fps = 15;
-    private int width = 20;
-    private int height = 20;
-    private int[] frame;
+    private static final int TILE_SIZE = 32;
+    private static final int MIN_FPS = 5;
+    private static final long ADAPT_INTERVAL = 1000;
+    private static final float COST_EMA_WEIGHT = 0.2f;
+
+    private volatile boolean capturing = false;
+    private volatile boolean paused = false;
+    private volatile View contentView;
+    @Nullable
+    private final Rect crop;
+
+    private volatile int fps;
+    private final int minFps;
+    private final int maxFps;
+    private final int maxDimension;
+    private volatile int width = 20;
+    private volatile int height = 20;
+    private int viewWidth;
+    private int viewHeight;
+
+    // Smoothed per-frame capture cost in ms and share of frames that changed
+    private volatile long drawDuration;
+    private float captureCost = 0f;
+    private float changeRate = 1f;
+    private long lastAdaptTime;
 
     private Bitmap bmp;
     private Canvas canvas;
+    private final OTFrameBufferPool framePool = new OTFrameBufferPool();
+    private volatile long framesCaptured = 0;
+    private volatile long framesSkipped = 0;
+    private volatile long bitmapAllocations = 0;
+    private volatile long framesUnchanged = 0;
+    private volatile float dirtyFraction = 1f;
+    private final int keepAliveInterval;
+    // The last frame read, kept to detect unchanged frames. Guarded by frameLock
+    private int[] previousFrame;
+    private int previousWidth;
+    private int previousHeight;
+    private long lastFrameSentTime;
+
+    private Handler mHandler = new Handler(Looper.getMainLooper());
+    private HandlerThread captureThread;
+    private Handler captureHandler;
+    private long nextFrameTime;
+    // Set while a frame is being drawn or delivered, so the bitmap is never drawn and read at once
+    private volatile boolean frameInFlight = false;
+    // Guards the bitmap against a delivery left running by a stopped capture thread
+    private final Object frameLock = new Object();
+
+    private Runnable captureTick = new Runnable() {
+        @Override
+        public void run() {
+            if (!capturing || paused) {
+                return;
+            }
+            if (!frameInFlight) {
+                frameInFlight = true;
+                mHandler.post(drawFrame);
+            } else {
+                framesSkipped++;
+            }
+            scheduleNextFrame();
+        }
+    };
 
-    private Handler mHandler = new Handler();
-
-    private Runnable newFrame = new Runnable() {
+    private Runnable drawFrame = new Runnable() {
         @Override
         public void run() {
-            if (capturing) {
-                int width = contentView.getWidth();
-                int height = contentView.getHeight();
+            if (!capturing || paused) {
+                frameInFlight = false;
+                return;
+            }
+            View view = contentView;
+            if (view == null) {
+                frameInFlight = false;
+                return;
+            }
+            // The view was unmounted, drop it so it can be collected
+            if (view.getWindowToken() == null) {
+                contentView = null;
+                frameInFlight = false;
+                return;
+            }
+            long drawStart = SystemClock.uptimeMillis();
+            int left = 0;
+            int top = 0;
+            int right = view.getWidth();
+            int bottom = view.getHeight();
+            if (crop != null) {
+                left = Math.max(left, crop.left);
+                top = Math.max(top, crop.top);
+                right = Math.min(right, crop.right);
+                bottom = Math.min(bottom, crop.bottom);
+            }
+            int viewWidth = right - left;
+            int viewHeight = bottom - top;
+            if (viewWidth <= 0 || viewHeight <= 0) {
+                frameInFlight = false;
+                return;
+            }
 
-                if (frame == null ||
-                        OTScreenCapturer.this.width != width ||
-                        OTScreenCapturer.this.height != height) {
+            synchronized (frameLock) {
+                if (bmp == null ||
+                        OTScreenCapturer.this.viewWidth != viewWidth ||
+                        OTScreenCapturer.this.viewHeight != viewHeight) {
 
-                    OTScreenCapturer.this.width = width;
-                    OTScreenCapturer.this.height = height;
+                    OTScreenCapturer.this.viewWidth = viewWidth;
+                    OTScreenCapturer.this.viewHeight = viewHeight;
+                    float scale = Math.min(1f, (float) maxDimension / Math.max(viewWidth, viewHeight));
+                    width = Math.max(1, Math.round(viewWidth * scale));
+                    height = Math.max(1, Math.round(viewHeight * scale));
 
-                    if (bmp != null) {
-                        bmp.recycle();
-                        bmp = null;
-                    }
+                    recycleBitmap();
                     bmp = Bitmap.createBitmap(width,
                             height, Bitmap.Config.ARGB_8888);
+                    bitmapAllocations++;
+                    framePool.trackAllocation(bmp.getByteCount());
 
                     canvas = new Canvas(bmp);
-                    frame = new int[width * height];
                 }
                 canvas.save();
-                canvas.translate(-contentView.getScrollX(), - contentView.getScrollY());
-                contentView.draw(canvas);
-
-                bmp.getPixels(frame, 0, width, 0, 0, width, height);
-
-                provideIntArrayFrame(frame, ARGB, width, height, 0, false);
-
+                canvas.scale((float) width / viewWidth, (float) height / viewHeight);
+                canvas.translate(-left - view.getScrollX(), -top - view.getScrollY());
+                view.draw(canvas);
                 canvas.restore();
+            }
+            drawDuration = SystemClock.uptimeMillis() - drawStart;
 
-                mHandler.postDelayed(newFrame, 1000 / fps);
+            synchronized (OTScreenCapturer.this) {
+                if (captureHandler == null) {
+                    frameInFlight = false;
+                    return;
+                }
+                captureHandler.post(deliverFrame);
+            }
+        }
+    };
 
+    private Runnable deliverFrame = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (frameLock) {
+                if (capturing && !paused && bmp != null) {
+                    long deliverStart = SystemClock.uptimeMillis();
+                    int[] frame = framePool.acquire(width * height);
+                    bmp.getPixels(frame, 0, width, 0, 0, width, height);
+                    if (previousFrame != null && previousWidth == width && previousHeight == height) {
+                        dirtyFraction = getDirtyFraction(previousFrame, frame, width, height);
+                    } else {
+                        dirtyFraction = 1f;
+                    }
+                    long now = SystemClock.uptimeMillis();
+                    if (dirtyFraction > 0 || now - lastFrameSentTime >= keepAliveInterval) {
+                        provideIntArrayFrame(frame, ARGB, width, height, 0, false);
+                        lastFrameSentTime = now;
+                        framesCaptured++;
+                    } else {
+                        framesUnchanged++;
+                    }
+                    if (previousFrame != null) {
+                        framePool.release(previousFrame);
+                    }
+                    previousFrame = frame;
+                    previousWidth = width;
+                    previousHeight = height;
+                    adaptFrameRate(drawDuration + SystemClock.uptimeMillis() - deliverStart, now);
+                }
             }
+            frameInFlight = false;
         }
     };
 
-    public OTScreenCapturer(View view) {
+    public OTScreenCapturer(@Nullable View view, @Nullable Rect crop, int maxDimension, int maxFps, int keepAliveInterval) {
+        this.contentView = view;
+        this.crop = crop;
+        this.maxDimension = maxDimension;
+        this.maxFps = Math.max(1, maxFps);
+        this.minFps = Math.min(MIN_FPS, this.maxFps);
+        this.fps = this.maxFps;
+        this.keepAliveInterval = keepAliveInterval;
+    }
+
+    /**
+     * Sets the view to capture once it is resolved. No frames are captured
+     * while it is null, and it is cleared once it is detached from its window.
+     */
+    public void setContentView(@Nullable View view) {
+
         this.contentView = view;
     }
 
+    /**
+     * Lowers the frame rate when capturing takes more than half of the frame
+     * interval, or when the content has mostly stopped changing, and raises
+     * it back towards maxFps once frames change and are cheap again.
+     */
+    private void adaptFrameRate(long cost, long now) {
+
+        captureCost += (cost - captureCost) * COST_EMA_WEIGHT;
+        changeRate += ((dirtyFraction > 0 ? 1f : 0f) - changeRate) * COST_EMA_WEIGHT;
+        if (now - lastAdaptTime < ADAPT_INTERVAL) {
+            return;
+        }
+        lastAdaptTime = now;
+        float frameInterval = 1000f / fps;
+        if (captureCost > frameInterval / 2 || changeRate < 0.1f) {
+            fps = Math.max(minFps, fps * 2 / 3);
+        } else if (changeRate > 0.5f && captureCost < frameInterval / 4) {
+            fps = Math.min(maxFps, fps + Math.max(1, fps / 3));
+        }
+    }
+
+    /**
+     * Compares two frames tile by tile and returns the fraction of tiles that
+     * differ. Each tile stops at its first differing row, so the cost of a
+     * changed frame shrinks with the amount that changed.
+     */
+    private static float getDirtyFraction(int[] previous, int[] current, int width, int height) {
+
+        int tiles = 0;
+        int dirtyTiles = 0;
+        for (int tileTop = 0; tileTop < height; tileTop += TILE_SIZE) {
+            int tileBottom = Math.min(tileTop + TILE_SIZE, height);
+            for (int tileLeft = 0; tileLeft < width; tileLeft += TILE_SIZE) {
+                int tileRight = Math.min(tileLeft + TILE_SIZE, width);
+                tiles++;
+                rows:
+                for (int y = tileTop; y < tileBottom; y++) {
+                    int rowStart = y * width;
+                    for (int i = rowStart + tileLeft; i < rowStart + tileRight; i++) {
+                        if (previous[i] != current[i]) {
+                            dirtyTiles++;
+                            break rows;
+                        }
+                    }
+                }
+            }
+        }
+        return tiles > 0 ? (float) dirtyTiles / tiles : 0f;
+    }
+
+    /**
+     * Schedules the next tick against the uptime clock rather than chaining
+     * delays, so the frame rate does not drift with the cost of each frame.
+     * Ticks missed while the thread was busy are skipped, not replayed.
+     */
+    private void scheduleNextFrame() {
+
+        long frameInterval = 1000 / fps;
+        long now = SystemClock.uptimeMillis();
+        nextFrameTime += frameInterval;
+        if (nextFrameTime <= now) {
+            nextFrameTime = now + frameInterval - (now - nextFrameTime) % frameInterval;
+        }
+        captureHandler.postAtTime(captureTick, nextFrameTime);
+    }
+
+    private synchronized void startCaptureThread() {
+
+        if (captureThread == null) {
+            captureThread = new HandlerThread("OTRN-screen-capture", Process.THREAD_PRIORITY_DEFAULT);
+            captureThread.start();
+            captureHandler = new Handler(captureThread.getLooper());
+        }
+        frameInFlight = false;
+        nextFrameTime = SystemClock.uptimeMillis();
+        // A restart on a live thread must replace its pending tick, not start a second chain
+        captureHandler.removeCallbacks(captureTick);
+        captureHandler.post(captureTick);
+    }
+
+    private synchronized void stopCaptureThread() {
+
+        mHandler.removeCallbacks(drawFrame);
+        if (captureThread != null) {
+            // Released and quit behind a delivery already queued, so the caller, often the
+            // UI thread, never waits on frameLock while a frame is being read and compared
+            final HandlerThread thread = captureThread;
+            captureHandler.removeCallbacks(captureTick);
+            captureHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    releaseBuffers();
+                    thread.quit();
+                }
+            });
+            captureThread = null;
+            captureHandler = null;
+        } else {
+            releaseBuffers();
+        }
+    }
+
+    /**
+     * Frees the bitmap and pooled pixel buffers as soon as capture stops or
+     * pauses, instead of leaving them for the next resize. Runs on the
+     * capture thread while it is alive.
+     */
+    private void releaseBuffers() {
+
+        synchronized (frameLock) {
+            recycleBitmap();
+            canvas = null;
+            if (previousFrame != null) {
+                framePool.release(previousFrame);
+                previousFrame = null;
+            }
+            framePool.clear();
+        }
+    }
+
+    private void recycleBitmap() {
+
+        if (bmp != null) {
+            framePool.trackRelease(bmp.getByteCount());
+            bmp.recycle();
+            bmp = null;
+        }
+    }
+
+    public WritableMap getStats() {
+
+        WritableMap stats = Arguments.createMap();
+        stats.putBoolean("capturing", capturing && !paused);
+        stats.putInt("width", width);
+        stats.putInt("height", height);
+        stats.putInt("fps", fps);
+        stats.putInt("maxFps", maxFps);
+        stats.putDouble("captureCost", captureCost);
+        stats.putDouble("framesCaptured", framesCaptured);
+        stats.putDouble("framesSkipped", framesSkipped);
+        stats.putDouble("framesUnchanged", framesUnchanged);
+        stats.putDouble("dirtyFraction", dirtyFraction);
+        stats.putDouble("bitmapAllocations", bitmapAllocations);
+        stats.putDouble("bufferAllocations", framePool.getAllocations());
+        stats.putDouble("bufferReuses", framePool.getReuses());
+        stats.putDouble("liveBytes", framePool.getLiveBytes());
+        stats.putDouble("peakBytes", framePool.getPeakBytes());
+        return stats;
+    }
+
     @Override
     public void init() {
 
@@ -76,14 +380,16 @@ public class OTScreenCapturer extends BaseVideoCapturer {
     public int startCapture() {
         capturing = true;
 
-        mHandler.postDelayed(newFrame, 1000 / fps);
+        if (!paused) {
+            startCaptureThread();
+        }
         return 0;
     }
 
     @Override
     public int stopCapture() {
         capturing = false;
-        mHandler.removeCallbacks(newFrame);
+        stopCaptureThread();
         return 0;
     }
 
@@ -106,16 +412,26 @@ public class OTScreenCapturer extends BaseVideoCapturer {
     @Override
     public void destroy() {
 
+        stopCapture();
     }
 
     @Override
     public void onPause() {
 
+        paused = true;
+        stopCaptureThread();
     }
 
     @Override
     public void onResume() {
 
+        if (!paused) {
+            return;
+        }
+        paused = false;
+        if (capturing) {
+            startCaptureThread();
+        }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package com.opentokreactnative;
+
+/**
+ * Fully qualified JS event names of a session, built once when the session is
+ * initialized so the SDK callbacks do not concatenate strings on every call.
+ */
+public final class OTSessionEventNames {
+
+    private static final String sessionPreface = "session:";
+
+    public final String onError;
+    public final String onConnected;
+    public final String onDisconnected;
+    public final String onReconnected;
+    public final String onReconnecting;
+    public final String onStreamReceived;
+    public final String onStreamDropped;
+    public final String onStreamPropertyChanged;
+    public final String onConnectionCreated;
+    public final String onConnectionDestroyed;
+    public final String onConnectionCountChanged;
+    public final String onSignalReceived;
+    public final String onArchiveStarted;
+    public final String onArchiveStopped;
+    public final String onAudioLevels;
+    public final String onActiveSpeakerChanged;
+    public final String onVideoAdmissionChanged;
+
+    public OTSessionEventNames(String sessionId) {
+
+        String prefix = sessionId + ":" + sessionPreface;
+        onError = (prefix + "onError").intern();
+        onConnected = (prefix + "onConnected").intern();
+        onDisconnected = (prefix + "onDisconnected").intern();
+        onReconnected = (prefix + "onReconnected").intern();
+        onReconnecting = (prefix + "onReconnecting").intern();
+        onStreamReceived = (prefix + "onStreamReceived").intern();
+        onStreamDropped = (prefix + "onStreamDropped").intern();
+        onStreamPropertyChanged = (prefix + "onStreamPropertyChanged").intern();
+        onConnectionCreated = (prefix + "onConnectionCreated").intern();
+        onConnectionDestroyed = (prefix + "onConnectionDestroyed").intern();
+        onConnectionCountChanged = (prefix + "onConnectionCountChanged").intern();
+        onSignalReceived = (prefix + "onSignalReceived").intern();
+        onArchiveStarted = (prefix + "onArchiveStarted").intern();
+        onArchiveStopped = (prefix + "onArchiveStopped").intern();
+        onAudioLevels = (prefix + "onAudioLevels").intern();
+        onActiveSpeakerChanged = (prefix + "onActiveSpeakerChanged").intern();
+        onVideoAdmissionChanged = (prefix + "onVideoAdmissionChanged").intern();
+    }
+}
@@ -4,6 +4,7 @@ package com.opentokreactnative;
  * Created by manik on 1/29/18.
  */
 
+import android.graphics.Rect;
 import android.util.Log;
 import android.widget.FrameLayout;
 import android.support.annotation.Nullable;
@@ -11,13 +12,19 @@ import android.view.View;
 
 import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.LifecycleEventListener;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.UiThreadUtil;
+import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.modules.core.DeviceEventManagerModule;
+import com.facebook.react.uimanager.IllegalViewOperationException;
+import com.facebook.react.uimanager.NativeViewHierarchyManager;
+import com.facebook.react.uimanager.UIBlock;
+import com.facebook.react.uimanager.UIManagerModule;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.ReadableArray;
 
@@ -34,7 +41,9 @@ import com.opentokreactnative.utils.Utils;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class OTSessionManager extends ReactContextBaseJavaModule
         implements Session.SessionListener,
@@ -50,15 +59,20 @@ public class OTSessionManager extends ReactContextBaseJavaModule
         SubscriberKit.AudioStatsListener,
         SubscriberKit.VideoStatsListener,
         SubscriberKit.VideoListener,
-        SubscriberKit.StreamListener{
+        SubscriberKit.StreamListener,
+        OTSubscriberLayout.VisibilityListener,
+        LifecycleEventListener{
 
     private ConcurrentHashMap<String, Integer> connectionStatusMap = new ConcurrentHashMap<>();
-    private ArrayList<String> jsEvents = new ArrayList<String>();
-    private ArrayList<String> componentEvents = new ArrayList<String>();
+    private ConcurrentHashMap<String, OTPublisherEventNames> publisherEventNames = new ConcurrentHashMap<>();
+    private OTEventRegistry eventRegistry = new OTEventRegistry();
+    private OTEventBatcher eventBatcher;
+    // Flush interval of each session that opted into event batching. Batching is module-wide:
+    // while any session is listed, every event, including ones of other sessions, is batched
+    private ConcurrentHashMap<String, Integer> batchingSessions = new ConcurrentHashMap<>();
+    private OTEventQueue eventQueue;
     private static final String TAG = "OTRN";
-    private final String sessionPreface = "session:";
-    private final String publisherPreface = "publisher:";
-    private final String subscriberPreface = "subscriber:";
+    private static final String subscriberPreface = "subscriber:";
     private Boolean logLevel = false;
     public OTRN sharedState;
 
@@ -66,6 +80,15 @@ public class OTSessionManager extends ReactContextBaseJavaModule
 
         super(reactContext);
         sharedState = OTRN.getSharedState();
+        sharedState.setSubscriberVisibilityListener(this);
+        reactContext.addLifecycleEventListener(this);
+        eventBatcher = new OTEventBatcher(reactContext);
+        eventQueue = new OTEventQueue(reactContext, new OTEventQueue.Sink() {
+            @Override
+            public void deliver(String eventName, @Nullable Object eventData) {
+                deliverEvent(eventName, eventData);
+            }
+        });
     }
 
     @ReactMethod
@@ -82,6 +105,12 @@ public class OTSessionManager extends ReactContextBaseJavaModule
         final String proxyUrl = sessionOptions.getString("proxyUrl");
         String androidOnTop = sessionOptions.getString("androidOnTop");
         String androidZOrder = sessionOptions.getString("androidZOrder");
+        if (sessionOptions.getBoolean("enableEventBatching")) {
+            batchingSessions.put(sessionId, sessionOptions.getInt("eventBatchInterval"));
+        } else {
+            batchingSessions.remove(sessionId);
+        }
+        updateEventBatching();
         ConcurrentHashMap<String, Session> mSessions = sharedState.getSessions();
         ConcurrentHashMap<String, String> mAndroidOnTopMap = sharedState.getAndroidOnTopMap();
         ConcurrentHashMap<String, String> mAndroidZOrderMap = sharedState.getAndroidZOrderMap();
@@ -114,6 +143,16 @@ public class OTSessionManager extends ReactContextBaseJavaModule
         mSessions.put(sessionId, mSession);
         mAndroidOnTopMap.put(sessionId, androidOnTop);
         mAndroidZOrderMap.put(sessionId, androidZOrder);
+        OTConnectionIndex connectionIndex = null;
+        if (sessionOptions.getBoolean("largeSession")) {
+            connectionIndex = new OTConnectionIndex(sessionOptions.getInt("connectionIndexCapacity"), sessionOptions.getInt("connectionCountInterval"));
+        }
+        OTSessionResources previousResources = sharedState.addSessionResources(new OTSessionResources(sessionId,
+                sessionOptions.getBoolean("compactEvents"), sessionOptions.getInt("audioLevelRate"),
+                sessionOptions.getInt("maxVideoSubscribers"), sessionOptions.getBoolean("suspendVideoInBackground"), connectionIndex));
+        if (previousResources != null) {
+            previousResources.getEventPipeline().quit();
+        }
     }
 
     @ReactMethod
@@ -144,10 +183,17 @@ public class OTSessionManager extends ReactContextBaseJavaModule
         Boolean publishAudio = properties.getBoolean("publishAudio");
         Boolean publishVideo = properties.getBoolean("publishVideo");
         String videoSource = properties.getString("videoSource");
+        int screenCaptureViewTag = properties.getInt("screenCaptureViewTag");
         Publisher mPublisher = null;
+        OTScreenCapturer capturer = null;
         if (videoSource.equals("screen")) {
-            View view = getCurrentActivity().getWindow().getDecorView().getRootView();
-            OTScreenCapturer capturer = new OTScreenCapturer(view);
+            // A shared React view is resolved on the UI thread, nothing is captured until then
+            View view = screenCaptureViewTag > 0 ? null : getCurrentActivity().getWindow().getDecorView().getRootView();
+            // Frames keep the view's size unless a resolution was set explicitly
+            String screenCaptureResolution = properties.getString("screenCaptureResolution");
+            int maxDimension = screenCaptureResolution.isEmpty() ? Integer.MAX_VALUE : Utils.getScreenCaptureMaxDimension(screenCaptureResolution);
+            capturer = new OTScreenCapturer(view, getScreenCaptureRect(properties), maxDimension,
+                    properties.getInt("screenCaptureFrameRate"), properties.getInt("screenKeepAliveInterval"));
             mPublisher = new Publisher.Builder(this.getReactApplicationContext())
                     .audioTrack(audioTrack)
                     .videoTrack(videoTrack)
@@ -174,11 +220,57 @@ public class OTSessionManager extends ReactContextBaseJavaModule
         mPublisher.setPublisherListener(this);
         mPublisher.setAudioLevelListener(this);
         mPublisher.setAudioFallbackEnabled(audioFallbackEnabled);
-        mPublisher.setPublishVideo(publishVideo);
+        OTPublisherVideoGate mVideoGate = new OTPublisherVideoGate(mPublisher, publishVideo);
+        mVideoGate.setRequested(publishVideo);
         mPublisher.setPublishAudio(publishAudio);
-        ConcurrentHashMap<String, Publisher> mPublishers = sharedState.getPublishers();
-        mPublishers.put(publisherId, mPublisher);
-        callback.invoke();
+        sharedState.getPublisherVideoGates().put(publisherId, mVideoGate);
+        publisherEventNames.put(publisherId, new OTPublisherEventNames(publisherId));
+        sharedState.addPublisher(publisherId, mPublisher);
+        if (capturer != null && screenCaptureViewTag > 0) {
+            resolveScreenCaptureView(publisherId, capturer, screenCaptureViewTag, callback);
+        } else {
+            callback.invoke();
+        }
+    }
+
+    /**
+     * Converts the screenCaptureRect property from dp to pixels of the
+     * captured view.
+     */
+    @Nullable
+    private Rect getScreenCaptureRect(ReadableMap properties) {
+
+        if (!properties.hasKey("screenCaptureRect") || properties.isNull("screenCaptureRect")) {
+            return null;
+        }
+        ReadableMap rect = properties.getMap("screenCaptureRect");
+        float density = getReactApplicationContext().getResources().getDisplayMetrics().density;
+        int left = Math.round((float) rect.getDouble("x") * density);
+        int top = Math.round((float) rect.getDouble("y") * density);
+        int right = left + Math.round((float) rect.getDouble("width") * density);
+        int bottom = top + Math.round((float) rect.getDouble("height") * density);
+        return new Rect(left, top, right, bottom);
+    }
+
+    private void resolveScreenCaptureView(final String publisherId, final OTScreenCapturer capturer, final int viewTag, final Callback callback) {
+
+        UIManagerModule uiManager = getReactApplicationContext().getNativeModule(UIManagerModule.class);
+        uiManager.addUIBlock(new UIBlock() {
+            @Override
+            public void execute(NativeViewHierarchyManager nativeViewHierarchyManager) {
+                try {
+                    capturer.setContentView(nativeViewHierarchyManager.resolveView(viewTag));
+                    callback.invoke();
+                } catch (IllegalViewOperationException e) {
+                    // The publisher was never handed to JS, so nothing else will release it
+                    capturer.stopCapture();
+                    sharedState.removePublisher(publisherId);
+                    publisherEventNames.remove(publisherId);
+                    WritableMap errorInfo = EventUtils.createError("Error initializing publisher. Could not find the view to share with tag " + viewTag + ".");
+                    callback.invoke(errorInfo);
+                }
+            }
+        });
     }
 
     @ReactMethod
@@ -190,6 +282,7 @@ public class OTSessionManager extends ReactContextBaseJavaModule
             Publisher mPublisher = mPublishers.get(publisherId);
             if (mPublisher != null) {
                 mSession.publish(mPublisher);
+                sharedState.addSessionPublisher(sessionId, publisherId);
                 callback.invoke();
             } else {
                 WritableMap errorInfo = EventUtils.createError("Error publishing. Could not find native publisher instance.");
@@ -205,10 +298,49 @@ public class OTSessionManager extends ReactContextBaseJavaModule
     public void subscribeToStream(String streamId, String sessionId, ReadableMap properties, Callback callback) {
 
         ConcurrentHashMap<String, Stream> mSubscriberStreams = sharedState.getSubscriberStreams();
-        ConcurrentHashMap<String, Subscriber> mSubscribers = sharedState.getSubscribers();
         ConcurrentHashMap<String, Session> mSessions = sharedState.getSessions();
         Stream stream = mSubscriberStreams.get(streamId);
         Session mSession = mSessions.get(sessionId);
+        Subscriber mSubscriber = buildSubscriber(streamId, sessionId, stream, properties);
+        if (mSession != null) {
+            mSession.subscribe(mSubscriber);
+            callback.invoke(null, streamId);
+        } else {
+            WritableMap errorInfo = EventUtils.createError("Error subscribing. The native session instance could not be found.");
+            callback.invoke(errorInfo);
+        }
+    }
+
+    @ReactMethod
+    public void subscribeToStreams(String sessionId, ReadableArray subscriptions, Callback callback) {
+
+        ConcurrentHashMap<String, Stream> mSubscriberStreams = sharedState.getSubscriberStreams();
+        Session mSession = sharedState.getSessions().get(sessionId);
+        if (mSession == null) {
+            WritableMap errorInfo = EventUtils.createError("Error subscribing. The native session instance could not be found.");
+            callback.invoke(errorInfo);
+            return;
+        }
+        WritableArray results = Arguments.createArray();
+        for (int i = 0; i < subscriptions.size(); i++) {
+            ReadableMap subscription = subscriptions.getMap(i);
+            String streamId = subscription.getString("streamId");
+            Stream stream = mSubscriberStreams.get(streamId);
+            WritableMap result = Arguments.createMap();
+            result.putString("streamId", streamId);
+            if (stream != null) {
+                mSession.subscribe(buildSubscriber(streamId, sessionId, stream, subscription.getMap("properties")));
+                result.putNull("error");
+            } else {
+                result.putMap("error", EventUtils.createError("Error subscribing. The native stream instance could not be found."));
+            }
+            results.pushMap(result);
+        }
+        callback.invoke(null, results);
+    }
+
+    private Subscriber buildSubscriber(String streamId, String sessionId, Stream stream, ReadableMap properties) {
+
         Subscriber mSubscriber = new Subscriber.Builder(getReactApplicationContext(), stream).build();
         mSubscriber.setSubscriberListener(this);
         mSubscriber.setAudioLevelListener(this);
@@ -217,15 +349,19 @@ public class OTSessionManager extends ReactContextBaseJavaModule
         mSubscriber.setVideoListener(this);
         mSubscriber.setStreamListener(this);
         mSubscriber.setSubscribeToAudio(properties.getBoolean("subscribeToAudio"));
-        mSubscriber.setSubscribeToVideo(properties.getBoolean("subscribeToVideo"));
-        mSubscribers.put(streamId, mSubscriber);
-        if (mSession != null) {
-            mSession.subscribe(mSubscriber);
-            callback.invoke(null, streamId);
-        } else {
-            WritableMap errorInfo = EventUtils.createError("Error subscribing. The native session instance could not be found.");
-            callback.invoke(errorInfo);
-        }
+        // Admission is decided before video is enabled, so a subscriber over the cap never starts decoding
+        OTSessionResources resources = sharedState.getSessionResources(sessionId);
+        boolean admitted = resources == null || !properties.getBoolean("subscribeToVideo")
+                || resources.getVideoAdmission().tryAdmit(streamId);
+        OTVideoGate mVideoGate = new OTVideoGate(mSubscriber, properties.getBoolean("subscribeToVideo"),
+                properties.getBoolean("pauseVideoWhenHidden"), admitted ? 0 : OTVideoGate.REASON_POLICY);
+        mSubscriber.setSubscribeToVideo(mVideoGate.isVideoEnabled());
+        sharedState.getVideoGates().put(streamId, mVideoGate);
+        sharedState.getSubscriberQuality().setEnabled(streamId, properties.getBoolean("autoPreferredResolution"));
+        sharedState.addSubscriber(sessionId, streamId, mSubscriber);
+        evaluateVideoAdmission(sessionId);
+        sharedState.getSubscriberStats().put(streamId, new OTSubscriberStats(properties.getInt("networkStatsSummaryInterval"), properties.getBoolean("networkStatsEvents")));
+        return mSubscriber;
     }
 
     @ReactMethod
@@ -235,25 +371,275 @@ public class OTSessionManager extends ReactContextBaseJavaModule
             @Override
             public void run() {
 
-                String mStreamId = streamId;
-                Callback mCallback = callback;
-                ConcurrentHashMap<String, Subscriber> mSubscribers = sharedState.getSubscribers();
-                ConcurrentHashMap<String, Stream> mSubscriberStreams = sharedState.getSubscriberStreams();
-                ConcurrentHashMap<String, FrameLayout> mSubscriberViewContainers = sharedState.getSubscriberViewContainers();
-                Subscriber mSubscriber = mSubscribers.get(mStreamId);
-                FrameLayout mSubscriberViewContainer = mSubscriberViewContainers.get(mStreamId);
-                if (mSubscriberViewContainer != null) {
-                    mSubscriberViewContainer.removeAllViews();
+                releaseSubscriber(streamId);
+                callback.invoke();
+
+            }
+        });
+    }
+
+    @ReactMethod
+    public void removeSubscribers(final ReadableArray streamIds, final Callback callback) {
+
+        final List<String> mStreamIds = new ArrayList<>(streamIds.size());
+        for (int i = 0; i < streamIds.size(); i++) {
+            mStreamIds.add(streamIds.getString(i));
+        }
+        UiThreadUtil.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+
+                WritableArray removedStreamIds = Arguments.createArray();
+                for (String mStreamId : mStreamIds) {
+                    releaseSubscriber(mStreamId);
+                    removedStreamIds.pushString(mStreamId);
                 }
-                mSubscriberViewContainers.remove(mStreamId);
-                mSubscribers.remove(mStreamId);
-                mSubscriberStreams.remove(mStreamId);
-                mCallback.invoke();
+                callback.invoke(null, removedStreamIds);
 
             }
         });
     }
 
+    /**
+     * Applies the video state requested by JS through the subscriber's video
+     * gate, so a subscriber that is suppressed natively stays paused until
+     * the suppression is lifted.
+     */
+    private void setSubscriberVideoRequested(String streamId, Subscriber subscriber, boolean subscribeToVideo) {
+
+        OTVideoGate mVideoGate = sharedState.getVideoGates().get(streamId);
+        if (mVideoGate == null) {
+            subscriber.setSubscribeToVideo(subscribeToVideo);
+            return;
+        }
+        mVideoGate.setRequested(subscribeToVideo);
+        if (subscriber.getSession() != null) {
+            evaluateVideoAdmission(subscriber.getSession().getSessionId());
+        }
+    }
+
+    @Override
+    public void onSubscriberVisibilityChanged(String streamId, boolean visible) {
+
+        Subscriber mSubscriber = sharedState.getSubscribers().get(streamId);
+        OTVideoGate mVideoGate = sharedState.getVideoGates().get(streamId);
+        if (mSubscriber == null || mVideoGate == null) {
+            return;
+        }
+        if (mVideoGate.pausesWhenHidden()) {
+            boolean changed = visible ? mVideoGate.release(OTVideoGate.REASON_HIDDEN) : mVideoGate.suppress(OTVideoGate.REASON_HIDDEN);
+            if (changed && mSubscriber.getSession() != null) {
+                evaluateVideoAdmission(mSubscriber.getSession().getSessionId());
+            }
+        }
+        final String event = subscriberPreface + "onVisibilityChanged";
+        if (eventRegistry.hasListeners(event)) {
+            final Session mSession = mSubscriber.getSession();
+            final String mStreamId = streamId;
+            final boolean mVisible = visible;
+            final boolean videoPaused = mVideoGate.isRequested() && !mVideoGate.isVideoEnabled();
+            dispatch(mSession, new Runnable() {
+                @Override
+                public void run() {
+                    WritableMap subscriberInfo = Arguments.createMap();
+                    putSubscriberStream(subscriberInfo, mStreamId, mSession);
+                    subscriberInfo.putBoolean("visible", mVisible);
+                    subscriberInfo.putBoolean("videoPaused", videoPaused);
+                    sendEventMap(getReactApplicationContext(), event, subscriberInfo);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onHostPause() {
+
+        for (OTSessionResources resources : sharedState.getAllSessionResources()) {
+            if (resources.isSuspendVideoInBackground()) {
+                suspendSessionVideo(resources);
+            }
+        }
+    }
+
+    @Override
+    public void onHostResume() {
+
+        for (OTSessionResources resources : sharedState.getAllSessionResources()) {
+            resumeSessionVideo(resources);
+        }
+    }
+
+    @Override
+    public void onHostDestroy() {
+
+    }
+
+    @Override
+    public void onCatalystInstanceDestroy() {
+
+        getReactApplicationContext().removeLifecycleEventListener(this);
+    }
+
+    /**
+     * Stops the session's subscriber video and publisher capture while the
+     * app is in the background. Publishers keep recording what JS requests
+     * meanwhile and apply it on resume. Audio keeps flowing.
+     */
+    private void suspendSessionVideo(OTSessionResources resources) {
+
+        for (String streamId : resources.getSubscriberIds()) {
+            OTVideoGate mVideoGate = sharedState.getVideoGates().get(streamId);
+            if (mVideoGate != null) {
+                mVideoGate.suppress(OTVideoGate.REASON_BACKGROUND);
+            }
+        }
+        for (String publisherId : resources.getPublisherIds()) {
+            OTPublisherVideoGate mVideoGate = sharedState.getPublisherVideoGates().get(publisherId);
+            if (mVideoGate != null) {
+                mVideoGate.suspend();
+            }
+        }
+    }
+
+    private void resumeSessionVideo(OTSessionResources resources) {
+
+        for (String streamId : resources.getSubscriberIds()) {
+            OTVideoGate mVideoGate = sharedState.getVideoGates().get(streamId);
+            if (mVideoGate != null) {
+                mVideoGate.release(OTVideoGate.REASON_BACKGROUND);
+            }
+        }
+        for (String publisherId : resources.getPublisherIds()) {
+            OTPublisherVideoGate mVideoGate = sharedState.getPublisherVideoGates().get(publisherId);
+            if (mVideoGate != null) {
+                mVideoGate.resume();
+            }
+        }
+    }
+
+    /**
+     * Applies the publishVideo state requested by JS through the publisher's
+     * video gate, so a publisher suspended in the background only records it
+     * and applies it on resume.
+     */
+    private void setPublisherVideoRequested(String publisherId, @Nullable Publisher publisher, boolean publishVideo) {
+
+        OTPublisherVideoGate mVideoGate = sharedState.getPublisherVideoGates().get(publisherId);
+        if (mVideoGate != null) {
+            mVideoGate.setRequested(publishVideo);
+        } else if (publisher != null) {
+            publisher.setPublishVideo(publishVideo);
+        }
+    }
+
+    /**
+     * Drops everything the session registered and detaches the views of its
+     * subscribers and publishers, then stops its event pipeline. Ids a newer
+     * session with the same id registered meanwhile are left alone.
+     */
+    private void releaseSession(Session session, OTSessionResources resources) {
+
+        final List<FrameLayout> mViewContainers = new ArrayList<>();
+        final List<Publisher> mPublishers = new ArrayList<>();
+        OTSessionResources newer = sharedState.getSessionResources(resources.getSessionId());
+        if (newer == resources) {
+            newer = null;
+        }
+        for (String streamId : resources.getSubscriberIds()) {
+            if (newer != null && newer.getSubscriberIds().contains(streamId)) {
+                continue;
+            }
+            FrameLayout mSubscriberViewContainer = sharedState.getSubscriberViewContainers().get(streamId);
+            if (mSubscriberViewContainer != null) {
+                mViewContainers.add(mSubscriberViewContainer);
+            }
+        }
+        for (String publisherId : resources.getPublisherIds()) {
+            if (newer != null && newer.getPublisherIds().contains(publisherId)) {
+                continue;
+            }
+            FrameLayout mPublisherViewContainer = sharedState.getPublisherViewContainers().get(publisherId);
+            if (mPublisherViewContainer != null) {
+                mViewContainers.add(mPublisherViewContainer);
+            }
+            Publisher mPublisher = sharedState.getPublishers().get(publisherId);
+            if (mPublisher != null) {
+                mPublishers.add(mPublisher);
+            }
+            publisherEventNames.remove(publisherId);
+        }
+        if (sharedState.releaseSessionResources(session, resources)) {
+            stopEventBatching(resources.getSessionId());
+        }
+        UiThreadUtil.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                for (FrameLayout mViewContainer : mViewContainers) {
+                    mViewContainer.removeAllViews();
+                }
+                for (Publisher mPublisher : mPublishers) {
+                    if (mPublisher.getCapturer() != null) {
+                        mPublisher.getCapturer().stopCapture();
+                    }
+                }
+            }
+        });
+        resources.getEventPipeline().quit();
+    }
+
+    private void releaseSubscriber(String mStreamId) {
+
+        ConcurrentHashMap<String, FrameLayout> mSubscriberViewContainers = sharedState.getSubscriberViewContainers();
+        FrameLayout mSubscriberViewContainer = mSubscriberViewContainers.get(mStreamId);
+        if (mSubscriberViewContainer != null) {
+            mSubscriberViewContainer.removeAllViews();
+        }
+        mSubscriberViewContainers.remove(mStreamId);
+        Subscriber mSubscriber = sharedState.removeSubscriber(mStreamId);
+        if (mSubscriber != null && mSubscriber.getSession() != null) {
+            removeAudioLevel(mSubscriber.getSession().getSessionId(), mStreamId);
+            removeActiveSpeaker(mSubscriber.getSession().getSessionId(), mStreamId);
+            sharedState.removeSubscriberStream(mSubscriber.getSession().getSessionId(), mStreamId);
+            evaluateVideoAdmission(mSubscriber.getSession().getSessionId());
+        } else {
+            sharedState.getSubscriberStreams().remove(mStreamId);
+        }
+        sharedState.removeStreamDescriptor(mStreamId);
+    }
+
+    @ReactMethod
+    public void getSubscriberStats(ReadableArray streamIds, Callback callback) {
+
+        ConcurrentHashMap<String, OTSubscriberStats> mSubscriberStats = sharedState.getSubscriberStats();
+        WritableArray statsList = Arguments.createArray();
+        for (int i = 0; i < streamIds.size(); i++) {
+            String streamId = streamIds.getString(i);
+            OTSubscriberStats stats = mSubscriberStats.get(streamId);
+            if (stats != null) {
+                statsList.pushMap(stats.prepareStats(streamId));
+            }
+        }
+        callback.invoke(null, statsList);
+    }
+
+    @ReactMethod
+    public void getEventQueueStats(Callback callback) {
+
+        callback.invoke(null, eventQueue.getStats());
+    }
+
+    @ReactMethod
+    public void getScreenCaptureStats(String publisherId, Callback callback) {
+
+        Publisher mPublisher = sharedState.getPublishers().get(publisherId);
+        if (mPublisher != null && mPublisher.getCapturer() instanceof OTScreenCapturer) {
+            callback.invoke(null, ((OTScreenCapturer) mPublisher.getCapturer()).getStats());
+        } else {
+            WritableMap errorInfo = EventUtils.createError("Error getting screen capture stats. Could not find a native publisher sharing the screen.");
+            callback.invoke(errorInfo);
+        }
+    }
+
     @ReactMethod
     public void disconnectSession(String sessionId, Callback callback) {
         ConcurrentHashMap<String, Session> mSessions = sharedState.getSessions();
@@ -278,11 +664,7 @@ public class OTSessionManager extends ReactContextBaseJavaModule
     @ReactMethod
     public void publishVideo(String publisherId, Boolean publishVideo) {
 
-        ConcurrentHashMap<String, Publisher> mPublishers = sharedState.getPublishers();
-        Publisher mPublisher = mPublishers.get(publisherId);
-        if (mPublisher != null) {
-            mPublisher.setPublishVideo(publishVideo);
-        }
+        setPublisherVideoRequested(publisherId, sharedState.getPublishers().get(publisherId), publishVideo);
     }
 
     @ReactMethod
@@ -301,8 +683,91 @@ public class OTSessionManager extends ReactContextBaseJavaModule
         ConcurrentHashMap<String, Subscriber> mSubscribers = sharedState.getSubscribers();
         Subscriber mSubscriber = mSubscribers.get(streamId);
         if (mSubscriber != null) {
-            mSubscriber.setSubscribeToVideo(subscribeToVideo);
+            setSubscriberVideoRequested(streamId, mSubscriber, subscribeToVideo);
+        }
+    }
+
+    @ReactMethod
+    public void setMediaStates(ReadableArray changes, Callback callback) {
+
+        ConcurrentHashMap<String, Subscriber> mSubscribers = sharedState.getSubscribers();
+        ConcurrentHashMap<String, Publisher> mPublishers = sharedState.getPublishers();
+        for (int i = 0; i < changes.size(); i++) {
+            String id = changes.getMap(i).getString("id");
+            if (!mSubscribers.containsKey(id) && !mPublishers.containsKey(id)) {
+                WritableMap errorInfo = EventUtils.createError("Error changing media states. Could not find native subscriber or publisher instance " + id + ".");
+                callback.invoke(errorInfo);
+                return;
+            }
         }
+        WritableArray mediaStates = Arguments.createArray();
+        for (int i = 0; i < changes.size(); i++) {
+            ReadableMap change = changes.getMap(i);
+            String id = change.getString("id");
+            WritableMap mediaState = Arguments.createMap();
+            mediaState.putString("id", id);
+            Subscriber mSubscriber = mSubscribers.get(id);
+            if (mSubscriber != null) {
+                if (change.hasKey("audio")) {
+                    mSubscriber.setSubscribeToAudio(change.getBoolean("audio"));
+                }
+                if (change.hasKey("video")) {
+                    setSubscriberVideoRequested(id, mSubscriber, change.getBoolean("video"));
+                }
+                OTVideoGate mVideoGate = sharedState.getVideoGates().get(id);
+                mediaState.putString("type", "subscriber");
+                mediaState.putBoolean("audio", mSubscriber.getSubscribeToAudio());
+                mediaState.putBoolean("video", mVideoGate != null ? mVideoGate.isRequested() : mSubscriber.getSubscribeToVideo());
+                mediaState.putBoolean("videoSuppressed", mVideoGate != null && mVideoGate.isRequested() && !mVideoGate.isVideoEnabled());
+            } else {
+                Publisher mPublisher = mPublishers.get(id);
+                if (mPublisher == null) {
+                    continue;
+                }
+                if (change.hasKey("audio")) {
+                    mPublisher.setPublishAudio(change.getBoolean("audio"));
+                }
+                if (change.hasKey("video")) {
+                    setPublisherVideoRequested(id, mPublisher, change.getBoolean("video"));
+                }
+                OTPublisherVideoGate mVideoGate = sharedState.getPublisherVideoGates().get(id);
+                mediaState.putString("type", "publisher");
+                mediaState.putBoolean("audio", mPublisher.getPublishAudio());
+                mediaState.putBoolean("video", mVideoGate != null ? mVideoGate.isRequested() : mPublisher.getPublishVideo());
+            }
+            mediaStates.pushMap(mediaState);
+        }
+        callback.invoke(null, mediaStates);
+    }
+
+    @ReactMethod
+    public void setVideoAdmission(String sessionId, ReadableMap policy, Callback callback) {
+
+        final OTSessionResources resources = sharedState.getSessionResources(sessionId);
+        if (resources == null) {
+            WritableMap errorInfo = EventUtils.createError("Error setting video admission. The native session instance could not be found.");
+            callback.invoke(errorInfo);
+            return;
+        }
+        OTVideoAdmission videoAdmission = resources.getVideoAdmission();
+        if (policy.hasKey("maxVideoSubscribers")) {
+            videoAdmission.setMaxVideoSubscribers(policy.getInt("maxVideoSubscribers"));
+        }
+        if (policy.hasKey("pinnedStreamIds")) {
+            ReadableArray pinnedStreamIds = policy.getArray("pinnedStreamIds");
+            List<String> mPinnedStreamIds = new ArrayList<>(pinnedStreamIds.size());
+            for (int i = 0; i < pinnedStreamIds.size(); i++) {
+                mPinnedStreamIds.add(pinnedStreamIds.getString(i));
+            }
+            videoAdmission.setPinned(mPinnedStreamIds);
+        }
+        resources.getEventPipeline().post(new Runnable() {
+            @Override
+            public void run() {
+                applyVideoAdmission(resources);
+            }
+        });
+        callback.invoke();
     }
 
     @ReactMethod
@@ -318,48 +783,44 @@ public class OTSessionManager extends ReactContextBaseJavaModule
     @ReactMethod
     public void setNativeEvents(ReadableArray events) {
 
-        for (int i = 0; i < events.size(); i++) {
-            jsEvents.add(events.getString(i));
-        }
+        eventRegistry.addEvents(events);
     }
 
     @ReactMethod
     public void removeNativeEvents(ReadableArray events) {
 
-        for (int i = 0; i < events.size(); i++) {
-            jsEvents.remove(events.getString(i));
-        }
+        eventRegistry.removeEvents(events);
     }
 
     @ReactMethod
     public void setJSComponentEvents(ReadableArray events) {
 
-        for (int i = 0; i < events.size(); i++) {
-            componentEvents.add(events.getString(i));
-        }
+        eventRegistry.addEvents(events);
     }
 
     @ReactMethod
     public void removeJSComponentEvents(ReadableArray events) {
 
-        for (int i = 0; i < events.size(); i++) {
-            componentEvents.remove(events.getString(i));
-        }
+        eventRegistry.removeEvents(events);
     }
 
     @ReactMethod
     public void sendSignal(String sessionId, ReadableMap signal, Callback callback) {
         ConcurrentHashMap<String, Session> mSessions = sharedState.getSessions();
         Session mSession = mSessions.get(sessionId);
-        ConcurrentHashMap<String, Connection> mConnections = sharedState.getConnections();
         String connectionId = signal.getString("to");
         Connection mConnection = null;
-        if (connectionId != null) {
-            mConnection = mConnections.get(connectionId);
+        boolean hasRecipient = connectionId != null && connectionId.length() > 0;
+        if (hasRecipient) {
+            mConnection = sharedState.getConnection(sessionId, connectionId);
         }
         if (mConnection != null && mSession != null) {
             mSession.sendSignal(signal.getString("type"), signal.getString("data"), mConnection);
             callback.invoke();
+        } else if (hasRecipient && mSession != null) {
+            // Never widen a signal meant for one client to the whole session
+            WritableMap errorInfo = EventUtils.createError("There was an error sending the signal. The connection " + connectionId + " could not be found.");
+            callback.invoke(errorInfo);
         } else if (mSession != null) {
             mSession.sendSignal(signal.getString("type"), signal.getString("data"));
             callback.invoke();
@@ -399,7 +860,16 @@ public class OTSessionManager extends ReactContextBaseJavaModule
                 if (mPublisher != null) {
                     mPublisher.getCapturer().stopCapture();
                 }
-                mPublishers.remove(publisherId);
+                if (mSession != null) {
+                    removeAudioLevel(mSession.getSessionId(), publisherId);
+                }
+                sharedState.removePublisher(publisherId);
+                publisherEventNames.remove(publisherId);
+                // Nothing was unpublished, e.g. the session already released it, so no stream destroyed callback will follow
+                if (mSession == null || mPublisher == null) {
+                    mPublisherDestroyedCallbacks.remove(publisherId);
+                    callback.invoke();
+                }
             }
         });
     }
@@ -428,19 +898,317 @@ public class OTSessionManager extends ReactContextBaseJavaModule
 
     private void sendEventMap(ReactContext reactContext, String eventName, @Nullable WritableMap eventData) {
 
-        if (Utils.contains(jsEvents, eventName) || Utils.contains(componentEvents, eventName)) {
-            reactContext
+        sendEventMap(reactContext, eventName, eventData, OTEventQueue.POLICY_LIFECYCLE, null);
+    }
+
+    private void sendEventMap(ReactContext reactContext, String eventName, @Nullable WritableMap eventData, int policy, @Nullable String key) {
+
+        if (!eventRegistry.hasListeners(eventName)) {
+            return;
+        }
+        eventQueue.enqueue(eventName, eventData, policy, key);
+    }
+
+    private void sendEventWithString(ReactContext reactContext, String eventName, String eventString, int policy, @Nullable String key) {
+
+        if (!eventRegistry.hasListeners(eventName)) {
+            return;
+        }
+        eventQueue.enqueue(eventName, eventString, policy, key);
+    }
+
+    private void deliverEvent(String eventName, @Nullable Object eventData) {
+
+        if (eventBatcher.isEnabled()) {
+            if (eventData instanceof String) {
+                eventBatcher.enqueue(eventName, (String) eventData);
+            } else {
+                eventBatcher.enqueue(eventName, (WritableMap) eventData);
+            }
+        } else {
+            getReactApplicationContext()
                     .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
                     .emit(eventName, eventData);
         }
     }
 
-    private void sendEventWithString(ReactContext reactContext, String eventName, String eventString) {
+    /**
+     * Batches all events of the module while at least one session asks for
+     * it, flushing at the shortest interval any of them requested.
+     */
+    private void updateEventBatching() {
 
-        if (Utils.contains(jsEvents, eventName) || Utils.contains(componentEvents, eventName)) {
-            reactContext
-                    .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
-                    .emit(eventName, eventString);
+        int interval = 0;
+        for (Integer sessionInterval : batchingSessions.values()) {
+            interval = interval == 0 ? sessionInterval : Math.min(interval, sessionInterval);
+        }
+        eventBatcher.setEnabled(!batchingSessions.isEmpty(), interval);
+    }
+
+    private void stopEventBatching(String sessionId) {
+
+        if (batchingSessions.remove(sessionId) != null) {
+            updateEventBatching();
+        }
+    }
+
+    private boolean isSamplingAudioLevels(@Nullable Session session) {
+
+        OTSessionResources resources = session != null ? sharedState.getSessionResources(session.getSessionId()) : null;
+        return resources != null && eventRegistry.hasListeners(resources.getEventNames().onAudioLevels);
+    }
+
+    private boolean isDetectingActiveSpeaker(@Nullable Session session) {
+
+        OTSessionResources resources = session != null ? sharedState.getSessionResources(session.getSessionId()) : null;
+        return resources != null && (eventRegistry.hasListeners(resources.getEventNames().onActiveSpeakerChanged)
+                || resources.getVideoAdmission().isEnabled());
+    }
+
+    private void sampleAudioLevel(Session session, String id, float audioLevel) {
+
+        if (session == null) {
+            return;
+        }
+        OTSessionResources resources = sharedState.getSessionResources(session.getSessionId());
+        if (resources == null) {
+            return;
+        }
+        final String event = resources.getEventNames().onAudioLevels;
+        final OTAudioLevelSampler sampler = resources.getAudioLevelSampler();
+        if (!eventRegistry.hasListeners(event)) {
+            return;
+        }
+        if (sampler.update(id, audioLevel)) {
+            sendAudioLevels(resources.getSessionId(), event, sampler);
+            return;
+        }
+        long trailingDelay = sampler.scheduleTrailingSnapshot();
+        if (trailingDelay >= 0) {
+            final String sessionId = resources.getSessionId();
+            resources.getEventPipeline().postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    if (sampler.takeTrailingSnapshot()) {
+                        sendAudioLevels(sessionId, event, sampler);
+                    }
+                }
+            }, trailingDelay);
+        }
+    }
+
+    private void sendAudioLevels(String sessionId, String event, OTAudioLevelSampler sampler) {
+
+        WritableMap audioLevelsInfo = Arguments.createMap();
+        audioLevelsInfo.putString("sessionId", sessionId);
+        audioLevelsInfo.putMap("audioLevels", sampler.snapshot());
+        sendEventMap(this.getReactApplicationContext(), event, audioLevelsInfo, OTEventQueue.POLICY_LATEST, null);
+    }
+
+    private void removeAudioLevel(String sessionId, String id) {
+
+        OTSessionResources resources = sharedState.getSessionResources(sessionId);
+        if (resources != null) {
+            resources.getAudioLevelSampler().remove(id);
+        }
+    }
+
+    private void detectActiveSpeaker(Session session, String streamId, float audioLevel) {
+
+        if (session == null) {
+            return;
+        }
+        OTSessionResources resources = sharedState.getSessionResources(session.getSessionId());
+        if (resources == null) {
+            return;
+        }
+        String event = resources.getEventNames().onActiveSpeakerChanged;
+        OTActiveSpeakerDetector detector = resources.getActiveSpeakerDetector();
+        boolean admissionEnabled = resources.getVideoAdmission().isEnabled();
+        if (!eventRegistry.hasListeners(event) && !admissionEnabled) {
+            return;
+        }
+        if (!detector.update(streamId, audioLevel)) {
+            return;
+        }
+        if (admissionEnabled) {
+            applyVideoAdmission(resources);
+        }
+        if (eventRegistry.hasListeners(event)) {
+            WritableMap speakerInfo = Arguments.createMap();
+            WritableArray speakers = Arguments.createArray();
+            List<String> ranking = detector.getRanking();
+            for (String speakerStreamId : ranking) {
+                WritableMap speaker = Arguments.createMap();
+                speaker.putString("streamId", speakerStreamId);
+                speaker.putDouble("energy", detector.getEnergy(speakerStreamId));
+                speakers.pushMap(speaker);
+            }
+            speakerInfo.putString("sessionId", session.getSessionId());
+            if (ranking.size() > 0) {
+                speakerInfo.putString("activeSpeaker", ranking.get(0));
+            } else {
+                speakerInfo.putNull("activeSpeaker");
+            }
+            speakerInfo.putArray("speakers", speakers);
+            sendEventMap(this.getReactApplicationContext(), event, speakerInfo, OTEventQueue.POLICY_LATEST, null);
+        }
+    }
+
+    private void evaluateVideoAdmission(String sessionId) {
+
+        final OTSessionResources resources = sharedState.getSessionResources(sessionId);
+        if (resources == null || !resources.getVideoAdmission().isEnabled()) {
+            return;
+        }
+        resources.getEventPipeline().post(new Runnable() {
+            @Override
+            public void run() {
+                applyVideoAdmission(resources);
+            }
+        });
+    }
+
+    /**
+     * Re-evaluates which subscribers of the session may receive video and
+     * suppresses the others through their video gates. Runs on the
+     * session's event pipeline.
+     */
+    private void applyVideoAdmission(OTSessionResources resources) {
+
+        OTVideoAdmission videoAdmission = resources.getVideoAdmission();
+        // Hidden or unrequested streams do not decode video, so they must not take a slot
+        Set<String> candidates = new HashSet<>();
+        for (String streamId : resources.getSubscriberIds()) {
+            OTVideoGate mVideoGate = sharedState.getVideoGates().get(streamId);
+            if (mVideoGate != null && mVideoGate.isAdmissionCandidate()) {
+                candidates.add(streamId);
+            }
+        }
+        boolean changed = videoAdmission.evaluate(candidates, resources.getActiveSpeakerDetector());
+        for (String streamId : resources.getSubscriberIds()) {
+            OTVideoGate mVideoGate = sharedState.getVideoGates().get(streamId);
+            if (mVideoGate == null) {
+                continue;
+            }
+            if (videoAdmission.isAdmitted(streamId)) {
+                mVideoGate.release(OTVideoGate.REASON_POLICY);
+            } else {
+                mVideoGate.suppress(OTVideoGate.REASON_POLICY);
+            }
+        }
+        String event = resources.getEventNames().onVideoAdmissionChanged;
+        if (changed && eventRegistry.hasListeners(event)) {
+            sendEventMap(getReactApplicationContext(), event, videoAdmission.prepareAdmission(resources.getSessionId()), OTEventQueue.POLICY_LATEST, null);
+        }
+    }
+
+    private void removeActiveSpeaker(String sessionId, String streamId) {
+
+        OTSessionResources resources = sharedState.getSessionResources(sessionId);
+        if (resources != null) {
+            resources.getActiveSpeakerDetector().remove(streamId);
+        }
+    }
+
+    private void sendNetworkStatsSummary(String streamId, OTSubscriberStats stats) {
+
+        String event = subscriberPreface + "onNetworkStatsSummary";
+        if (eventRegistry.hasListeners(event) && stats.isSummaryDue()) {
+            sendEventMap(this.getReactApplicationContext(), event, stats.prepareSummary(streamId), OTEventQueue.POLICY_LATEST, streamId);
+        }
+    }
+
+    private void dispatch(@Nullable Session session, Runnable task) {
+
+        OTSessionResources resources = session != null ? sharedState.getSessionResources(session.getSessionId()) : null;
+        if (resources != null) {
+            resources.getEventPipeline().post(task);
+        } else {
+            task.run();
+        }
+    }
+
+    // Callers pass subscriberPreface + a literal, a compile-time constant, so unobserved callbacks allocate nothing
+    private void dispatchSubscriberEvent(final SubscriberKit subscriber, final String event, @Nullable final String key, @Nullable final String value) {
+
+        if (!eventRegistry.hasListeners(event)) {
+            return;
+        }
+        dispatch(subscriber.getSession(), new Runnable() {
+            @Override
+            public void run() {
+                String streamId = Utils.getStreamIdBySubscriber(subscriber);
+                if (streamId.length() > 0) {
+                    WritableMap subscriberInfo = Arguments.createMap();
+                    putSubscriberStream(subscriberInfo, streamId, subscriber.getSession());
+                    if (key != null) {
+                        subscriberInfo.putString(key, value);
+                    }
+                    sendEventMap(getReactApplicationContext(), event, subscriberInfo);
+                }
+            }
+        });
+    }
+
+    /**
+     * Schedules the aggregated connection count event of a large session.
+     * Returns false for regular sessions, which report each connection.
+     */
+    private boolean scheduleConnectionCount(final Session session) {
+
+        final OTSessionResources resources = sharedState.getSessionResources(session.getSessionId());
+        if (resources == null || resources.getConnectionIndex() == null) {
+            return false;
+        }
+        final OTConnectionIndex connectionIndex = resources.getConnectionIndex();
+        if (eventRegistry.hasListeners(resources.getEventNames().onConnectionCountChanged) && connectionIndex.scheduleCount()) {
+            resources.getEventPipeline().postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    sendEventMap(getReactApplicationContext(), resources.getEventNames().onConnectionCountChanged,
+                            connectionIndex.prepareCountChange(session.getSessionId()), OTEventQueue.POLICY_LATEST, null);
+                }
+            }, connectionIndex.getCountInterval());
+        }
+        return true;
+    }
+
+    /**
+     * Returns null once the session is released; callbacks racing the release
+     * have no JS listener left to notify and simply return.
+     */
+    @Nullable
+    private OTSessionEventNames getSessionEventNames(Session session) {
+
+        OTSessionResources resources = sharedState.getSessionResources(session.getSessionId());
+        return resources != null ? resources.getEventNames() : null;
+    }
+
+    @Nullable
+    private OTPublisherEventNames getPublisherEventNames(String publisherId) {
+
+        return publisherEventNames.get(publisherId);
+    }
+
+    private boolean isCompactEvents(Session session) {
+
+        if (session == null) {
+            return false;
+        }
+        OTSessionResources resources = sharedState.getSessionResources(session.getSessionId());
+        return resources != null && resources.isCompactEvents();
+    }
+
+    private void putSubscriberStream(WritableMap subscriberInfo, String streamId, Session session) {
+
+        if (isCompactEvents(session)) {
+            subscriberInfo.putString("streamId", streamId);
+            return;
+        }
+        Stream mStream = sharedState.getSubscriberStreams().get(streamId);
+        if (mStream != null) {
+            subscriberInfo.putMap("stream", EventUtils.prepareJSStreamMap(mStream, session));
         }
     }
 
@@ -470,47 +1238,89 @@ public class OTSessionManager extends ReactContextBaseJavaModule
     }
 
     @Override
-    public void onError(Session session, OpentokError opentokError) {
+    public void onError(final Session session, final OpentokError opentokError) {
 
         if (Utils.didConnectionFail(opentokError)) {
             setConnectionStatus(session.getSessionId(), 6);
+            stopEventBatching(session.getSessionId());
         }
-        WritableMap errorInfo = EventUtils.prepareJSErrorMap(opentokError);
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onError", errorInfo);
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        if (eventNames == null) {
+            return;
+        }
+        dispatch(session, new Runnable() {
+            @Override
+            public void run() {
+                WritableMap errorInfo = EventUtils.prepareJSErrorMap(opentokError);
+                sendEventMap(getReactApplicationContext(), eventNames.onError, errorInfo);
+            }
+        });
         printLogs("There was an error");
     }
 
     @Override
-    public void onDisconnected(Session session) {
-        ConcurrentHashMap<String, Session> mSessions = sharedState.getSessions();
+    public void onDisconnected(final Session session) {
         ConcurrentHashMap<String, Callback> mSessionDisconnectCallbacks = sharedState.getSessionDisconnectCallbacks();
-        ConcurrentHashMap<String, Callback> mSessionConnectCallbacks = sharedState.getSessionDisconnectCallbacks();
-        setConnectionStatus(session.getSessionId(), 0);
-        WritableMap sessionInfo = EventUtils.prepareJSSessionMap(session);
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onDisconnected", sessionInfo);
-        Callback disconnectCallback = mSessionDisconnectCallbacks.get(session.getSessionId());
-        if (disconnectCallback != null) {
-            disconnectCallback.invoke();
+        // initSession may already have registered a new session with the same id, whose state must survive
+        final boolean current = sharedState.getSessions().get(session.getSessionId()) == session;
+        if (current) {
+            connectionStatusMap.remove(session.getSessionId());
+        }
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        final Callback disconnectCallback = mSessionDisconnectCallbacks.get(session.getSessionId());
+        dispatch(session, new Runnable() {
+            @Override
+            public void run() {
+                if (eventNames != null) {
+                    WritableMap sessionInfo = EventUtils.prepareJSSessionMap(session);
+                    sendEventMap(getReactApplicationContext(), eventNames.onDisconnected, sessionInfo);
+                }
+                if (disconnectCallback != null) {
+                    disconnectCallback.invoke();
+                }
+            }
+        });
+        // Released on the pipeline behind the tasks already queued, which still resolve their ids
+        final OTSessionResources resources = current ? sharedState.getSessionResources(session.getSessionId()) : null;
+        if (resources != null) {
+            resources.getEventPipeline().post(new Runnable() {
+                @Override
+                public void run() {
+                    releaseSession(session, resources);
+                }
+            });
+        } else if (sharedState.releaseSessionResources(session, null)) {
+            stopEventBatching(session.getSessionId());
+        }
+        if (this.logLevel) {
+            printLogs("onDisconnected: Disconnected from session: " + session.getSessionId());
         }
-        mSessions.remove(session.getSessionId());
-        mSessionConnectCallbacks.remove(session.getSessionId());
-        mSessionDisconnectCallbacks.remove(session.getSessionId());
-        printLogs("onDisconnected: Disconnected from session: " + session.getSessionId());
     }
 
     @Override
-    public void onStreamReceived(Session session, Stream stream) {
+    public void onStreamReceived(final Session session, final Stream stream) {
 
-        ConcurrentHashMap<String, Stream> mSubscriberStreams = sharedState.getSubscriberStreams();
-        mSubscriberStreams.put(stream.getStreamId(), stream);
-        WritableMap streamInfo = EventUtils.prepareJSStreamMap(stream, session);
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onStreamReceived", streamInfo);
-        printLogs("onStreamReceived: New Stream Received " + stream.getStreamId() + " in session: " + session.getSessionId());
+        sharedState.addSubscriberStream(session.getSessionId(), stream);
+        final OTStreamDescriptor descriptor = sharedState.getStreamDescriptor(stream, session);
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        if (eventNames == null) {
+            return;
+        }
+        dispatch(session, new Runnable() {
+            @Override
+            public void run() {
+                WritableMap streamInfo = descriptor.toWritableMap();
+                sendEventMap(getReactApplicationContext(), eventNames.onStreamReceived, streamInfo);
+            }
+        });
+        if (this.logLevel) {
+            printLogs("onStreamReceived: New Stream Received " + stream.getStreamId() + " in session: " + session.getSessionId());
+        }
 
     }
 
     @Override
-    public void onConnected(Session session) {
+    public void onConnected(final Session session) {
 
         setConnectionStatus(session.getSessionId(), 1);
         ConcurrentHashMap<String, Callback> mSessionConnectCallbacks = sharedState.getSessionConnectCallbacks();
@@ -518,384 +1328,593 @@ public class OTSessionManager extends ReactContextBaseJavaModule
         if (mCallback != null) {
             mCallback.invoke();
         }
-        WritableMap sessionInfo = EventUtils.prepareJSSessionMap(session);
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onConnected", sessionInfo);
-        printLogs("onConnected: Connected to session: "+session.getSessionId());
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        if (eventNames == null) {
+            return;
+        }
+        dispatch(session, new Runnable() {
+            @Override
+            public void run() {
+                WritableMap sessionInfo = EventUtils.prepareJSSessionMap(session);
+                sendEventMap(getReactApplicationContext(), eventNames.onConnected, sessionInfo);
+            }
+        });
+        if (this.logLevel) {
+            printLogs("onConnected: Connected to session: "+session.getSessionId());
+        }
     }
 
     @Override
-    public void onReconnected(Session session) {
+    public void onReconnected(final Session session) {
 
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onReconnected", null);
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        if (eventNames == null) {
+            return;
+        }
+        dispatch(session, new Runnable() {
+            @Override
+            public void run() {
+                sendEventMap(getReactApplicationContext(), eventNames.onReconnected, null);
+            }
+        });
         printLogs("Reconnected");
     }
 
     @Override
-    public void onReconnecting(Session session) {
+    public void onReconnecting(final Session session) {
 
         setConnectionStatus(session.getSessionId(), 3);
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onReconnecting", null);
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        if (eventNames == null) {
+            return;
+        }
+        dispatch(session, new Runnable() {
+            @Override
+            public void run() {
+                sendEventMap(getReactApplicationContext(), eventNames.onReconnecting, null);
+            }
+        });
         printLogs("Reconnecting");
     }
 
     @Override
-    public void onArchiveStarted(Session session, String id, String name) {
+    public void onArchiveStarted(final Session session, final String id, final String name) {
 
-        WritableMap archiveInfo = Arguments.createMap();
-        archiveInfo.putString("archiveId", id);
-        archiveInfo.putString("name", name);
-        archiveInfo.putString("sessionId", session.getSessionId());
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onArchiveStarted", archiveInfo);
-        printLogs("Archive Started: " + id);
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        if (eventNames == null) {
+            return;
+        }
+        final String event = eventNames.onArchiveStarted;
+        if (eventRegistry.hasListeners(event)) {
+            dispatch(session, new Runnable() {
+                @Override
+                public void run() {
+                    WritableMap archiveInfo = Arguments.createMap();
+                    archiveInfo.putString("archiveId", id);
+                    archiveInfo.putString("name", name);
+                    archiveInfo.putString("sessionId", session.getSessionId());
+                    sendEventMap(getReactApplicationContext(), event, archiveInfo);
+                }
+            });
+        }
+        if (this.logLevel) {
+            printLogs("Archive Started: " + id);
+        }
     }
 
     @Override
-    public void onArchiveStopped(Session session, String id) {
+    public void onArchiveStopped(final Session session, final String id) {
 
-        WritableMap archiveInfo = Arguments.createMap();
-        archiveInfo.putString("archiveId", id);
-        archiveInfo.putString("name", "");
-        archiveInfo.putString("sessionId", session.getSessionId());
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onArchiveStopped", archiveInfo);
-        printLogs("Archive Stopped: " + id);
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        if (eventNames == null) {
+            return;
+        }
+        final String event = eventNames.onArchiveStopped;
+        if (eventRegistry.hasListeners(event)) {
+            dispatch(session, new Runnable() {
+                @Override
+                public void run() {
+                    WritableMap archiveInfo = Arguments.createMap();
+                    archiveInfo.putString("archiveId", id);
+                    archiveInfo.putString("name", "");
+                    archiveInfo.putString("sessionId", session.getSessionId());
+                    sendEventMap(getReactApplicationContext(), event, archiveInfo);
+                }
+            });
+        }
+        if (this.logLevel) {
+            printLogs("Archive Stopped: " + id);
+        }
     }
     @Override
-    public void onConnectionCreated(Session session, Connection connection) {
+    public void onConnectionCreated(final Session session, final Connection connection) {
 
-        ConcurrentHashMap<String, Connection> mConnections = sharedState.getConnections();
-        mConnections.put(connection.getConnectionId(), connection);
-        WritableMap connectionInfo = EventUtils.prepareJSConnectionMap(connection);
-        connectionInfo.putString("sessionId", session.getSessionId());
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onConnectionCreated", connectionInfo);
-        printLogs("onConnectionCreated: Connection Created: "+connection.getConnectionId());
+        sharedState.addConnection(session.getSessionId(), connection);
+        if (scheduleConnectionCount(session)) {
+            return;
+        }
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        if (eventNames == null) {
+            return;
+        }
+        final String event = eventNames.onConnectionCreated;
+        if (eventRegistry.hasListeners(event)) {
+            dispatch(session, new Runnable() {
+                @Override
+                public void run() {
+                    WritableMap connectionInfo = EventUtils.prepareJSConnectionMap(connection);
+                    connectionInfo.putString("sessionId", session.getSessionId());
+                    sendEventMap(getReactApplicationContext(), event, connectionInfo);
+                }
+            });
+        }
+        if (this.logLevel) {
+            printLogs("onConnectionCreated: Connection Created: "+connection.getConnectionId());
+        }
     }
 
     @Override
-    public void onConnectionDestroyed(Session session, Connection connection) {
+    public void onConnectionDestroyed(final Session session, final Connection connection) {
 
-        ConcurrentHashMap<String, Connection> mConnections = sharedState.getConnections();
-        mConnections.remove(connection.getConnectionId());
-        WritableMap connectionInfo = EventUtils.prepareJSConnectionMap(connection);
-        connectionInfo.putString("sessionId", session.getSessionId());
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onConnectionDestroyed", connectionInfo);
-        printLogs("onConnectionDestroyed: Connection Destroyed: "+connection.getConnectionId());
+        sharedState.removeConnection(session.getSessionId(), connection.getConnectionId());
+        if (scheduleConnectionCount(session)) {
+            return;
+        }
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        if (eventNames == null) {
+            return;
+        }
+        final String event = eventNames.onConnectionDestroyed;
+        if (eventRegistry.hasListeners(event)) {
+            dispatch(session, new Runnable() {
+                @Override
+                public void run() {
+                    WritableMap connectionInfo = EventUtils.prepareJSConnectionMap(connection);
+                    connectionInfo.putString("sessionId", session.getSessionId());
+                    sendEventMap(getReactApplicationContext(), event, connectionInfo);
+                }
+            });
+        }
+        if (this.logLevel) {
+            printLogs("onConnectionDestroyed: Connection Destroyed: "+connection.getConnectionId());
+        }
     }
     @Override
-    public void onStreamDropped(Session session, Stream stream) {
+    public void onStreamDropped(final Session session, final Stream stream) {
 
-        WritableMap streamInfo = EventUtils.prepareJSStreamMap(stream, session);
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onStreamDropped", streamInfo);
-        printLogs("onStreamDropped: Stream Dropped: "+stream.getStreamId() +" in session: "+session.getSessionId());
+        final OTStreamDescriptor descriptor = sharedState.getStreamDescriptor(stream, session);
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        if (eventNames == null) {
+            return;
+        }
+        dispatch(session, new Runnable() {
+            @Override
+            public void run() {
+                WritableMap streamInfo = descriptor.toWritableMap();
+                sharedState.removeStreamDescriptor(stream.getStreamId());
+                sendEventMap(getReactApplicationContext(), eventNames.onStreamDropped, streamInfo);
+            }
+        });
+        if (this.logLevel) {
+            printLogs("onStreamDropped: Stream Dropped: "+stream.getStreamId() +" in session: "+session.getSessionId());
+        }
     }
 
     @Override
-    public void onStreamCreated(PublisherKit publisherKit, Stream stream) {
+    public void onStreamCreated(final PublisherKit publisherKit, final Stream stream) {
 
-        String publisherId = Utils.getPublisherId(publisherKit);
-        ConcurrentHashMap<String, Stream> mSubscriberStreams = sharedState.getSubscriberStreams();
-        mSubscriberStreams.put(stream.getStreamId(), stream);
-        if (publisherId.length() > 0) {
-            String event = publisherId + ":" + publisherPreface + "onStreamCreated";;
-            WritableMap streamInfo = EventUtils.prepareJSStreamMap(stream, publisherKit.getSession());
-            sendEventMap(this.getReactApplicationContext(), event, streamInfo);
+        sharedState.addSubscriberStream(publisherKit.getSession().getSessionId(), stream);
+        final OTStreamDescriptor descriptor = sharedState.getStreamDescriptor(stream, publisherKit.getSession());
+        final OTPublisherEventNames eventNames = getPublisherEventNames(Utils.getPublisherId(publisherKit));
+        if (eventNames == null) {
+            return;
+        }
+        dispatch(publisherKit.getSession(), new Runnable() {
+            @Override
+            public void run() {
+                WritableMap streamInfo = descriptor.toWritableMap();
+                sendEventMap(getReactApplicationContext(), eventNames.onStreamCreated, streamInfo);
+            }
+        });
+        if (this.logLevel) {
+            printLogs("onStreamCreated: Publisher Stream Created. Own stream "+stream.getStreamId());
         }
-        printLogs("onStreamCreated: Publisher Stream Created. Own stream "+stream.getStreamId());
 
     }
 
     @Override
-    public void onStreamDestroyed(PublisherKit publisherKit, Stream stream) {
-
-        String publisherId = Utils.getPublisherId(publisherKit);
-        String event = publisherId + ":" + publisherPreface + "onStreamDestroyed";
-        ConcurrentHashMap<String, Stream> mSubscriberStreams = sharedState.getSubscriberStreams();
-        String mStreamId = stream.getStreamId();
-        mSubscriberStreams.remove(mStreamId);
-        if (publisherId.length() > 0) {
-            WritableMap streamInfo = EventUtils.prepareJSStreamMap(stream, publisherKit.getSession());
-            sendEventMap(this.getReactApplicationContext(), event, streamInfo);
-        }
-        Callback mCallback = sharedState.getPublisherDestroyedCallbacks().get(publisherId);
-        if (mCallback != null) {
-            mCallback.invoke();
+    public void onStreamDestroyed(final PublisherKit publisherKit, final Stream stream) {
+
+        final String publisherId = Utils.getPublisherId(publisherKit);
+        final String mStreamId = stream.getStreamId();
+        sharedState.removeSubscriberStream(publisherKit.getSession().getSessionId(), mStreamId);
+        final OTPublisherEventNames eventNames = getPublisherEventNames(publisherId);
+        final OTStreamDescriptor descriptor = sharedState.getStreamDescriptor(stream, publisherKit.getSession());
+        final Callback mCallback = sharedState.getPublisherDestroyedCallbacks().get(publisherId);
+        dispatch(publisherKit.getSession(), new Runnable() {
+            @Override
+            public void run() {
+                if (eventNames != null) {
+                    WritableMap streamInfo = descriptor.toWritableMap();
+                    sendEventMap(getReactApplicationContext(), eventNames.onStreamDestroyed, streamInfo);
+                }
+                sharedState.removeStreamDescriptor(mStreamId);
+                if (mCallback != null) {
+                    mCallback.invoke();
+                }
+            }
+        });
+        sharedState.removePublisher(publisherId);
+        publisherEventNames.remove(publisherId);
+        if (this.logLevel) {
+            printLogs("onStreamDestroyed: Publisher Stream Destroyed. Own stream "+stream.getStreamId());
         }
-        sharedState.getPublishers().remove(publisherId);
-        printLogs("onStreamDestroyed: Publisher Stream Destroyed. Own stream "+stream.getStreamId());
     }
 
     @Override
-    public void onError(PublisherKit publisherKit, OpentokError opentokError) {
+    public void onError(final PublisherKit publisherKit, final OpentokError opentokError) {
 
-        String publisherId = Utils.getPublisherId(publisherKit);
-        if (publisherId.length() > 0) {
-            String event = publisherId + ":" + publisherPreface +  "onError";
-            WritableMap errorInfo = EventUtils.prepareJSErrorMap(opentokError);
-            sendEventMap(this.getReactApplicationContext(), event, errorInfo);
+        final OTPublisherEventNames eventNames = getPublisherEventNames(Utils.getPublisherId(publisherKit));
+        if (eventNames == null) {
+            return;
+        }
+        dispatch(publisherKit.getSession(), new Runnable() {
+            @Override
+            public void run() {
+                WritableMap errorInfo = EventUtils.prepareJSErrorMap(opentokError);
+                sendEventMap(getReactApplicationContext(), eventNames.onError, errorInfo);
+            }
+        });
+        if (this.logLevel) {
+            printLogs("onError: "+opentokError.getErrorDomain() + " : " +
+                    opentokError.getErrorCode() +  " - "+opentokError.getMessage());
         }
-        printLogs("onError: "+opentokError.getErrorDomain() + " : " +
-                opentokError.getErrorCode() +  " - "+opentokError.getMessage());
     }
 
     @Override
-    public void onAudioLevelUpdated(PublisherKit publisher, float audioLevel) {
+    public void onAudioLevelUpdated(final PublisherKit publisher, final float audioLevel) {
 
-        String publisherId = Utils.getPublisherId(publisher);
-        if (publisherId.length() > 0) {
-            String event = publisherId + ":" + publisherPreface + "onAudioLevelUpdated";
-            sendEventWithString(this.getReactApplicationContext(), event, String.valueOf(audioLevel));
+        final String publisherId = Utils.getPublisherId(publisher);
+        final OTPublisherEventNames eventNames = getPublisherEventNames(publisherId);
+        if (eventNames == null) {
+            return;
         }
+        final boolean sampling = isSamplingAudioLevels(publisher.getSession());
+        // The session's audioLevels event replaces the per-publisher one while it is observed
+        final boolean listening = !sampling && eventRegistry.hasListeners(eventNames.onAudioLevelUpdated);
+        if (!sampling && !listening) {
+            return;
+        }
+        dispatch(publisher.getSession(), new Runnable() {
+            @Override
+            public void run() {
+                if (sampling) {
+                    sampleAudioLevel(publisher.getSession(), publisherId, audioLevel);
+                }
+                if (listening) {
+                    sendEventWithString(getReactApplicationContext(), eventNames.onAudioLevelUpdated, String.valueOf(audioLevel), OTEventQueue.POLICY_LATEST, null);
+                }
+            }
+        });
     }
 
     @Override
     public void onConnected(SubscriberKit subscriberKit) {
 
-        String streamId = Utils.getStreamIdBySubscriber(subscriberKit);
-        if (streamId.length() > 0) {
-            ConcurrentHashMap<String, Stream> streams = sharedState.getSubscriberStreams();
-            Stream mStream = streams.get(streamId);
-            WritableMap subscriberInfo = Arguments.createMap();
-            if (mStream != null) {
-                subscriberInfo.putMap("stream", EventUtils.prepareJSStreamMap(mStream, subscriberKit.getSession()));
-            }
-            sendEventMap(this.getReactApplicationContext(), subscriberPreface +  "onConnected", subscriberInfo);
+        dispatchSubscriberEvent(subscriberKit, subscriberPreface + "onConnected", null, null);
+        if (this.logLevel) {
+            printLogs("onConnected: Subscriber connected. Stream: "+subscriberKit.getStream().getStreamId());
         }
-        printLogs("onConnected: Subscriber connected. Stream: "+subscriberKit.getStream().getStreamId());
     }
 
     @Override
     public void onDisconnected(SubscriberKit subscriberKit) {
 
-        String streamId = Utils.getStreamIdBySubscriber(subscriberKit);
-        if (streamId.length() > 0) {
-            ConcurrentHashMap<String, Stream> streams = sharedState.getSubscriberStreams();
-            Stream mStream = streams.get(streamId);
-            WritableMap subscriberInfo = Arguments.createMap();
-            if (mStream != null) {
-                subscriberInfo.putMap("stream", EventUtils.prepareJSStreamMap(mStream, subscriberKit.getSession()));
-            }
-            sendEventMap(this.getReactApplicationContext(), subscriberPreface +  "onDisconnected", subscriberInfo);
+        dispatchSubscriberEvent(subscriberKit, subscriberPreface + "onDisconnected", null, null);
+        if (this.logLevel) {
+            printLogs("onDisconnected: Subscriber disconnected. Stream: "+subscriberKit.getStream().getStreamId());
         }
-        printLogs("onDisconnected: Subscriber disconnected. Stream: "+subscriberKit.getStream().getStreamId());
     }
 
     @Override
     public void onReconnected(SubscriberKit subscriberKit) {
 
-        String streamId = Utils.getStreamIdBySubscriber(subscriberKit);
-        if (streamId.length() > 0) {
-            ConcurrentHashMap<String, Stream> streams = sharedState.getSubscriberStreams();
-            Stream mStream = streams.get(streamId);
-            WritableMap subscriberInfo = Arguments.createMap();
-            if (mStream != null) {
-                subscriberInfo.putMap("stream", EventUtils.prepareJSStreamMap(mStream, subscriberKit.getSession()));
-            }
-            sendEventMap(this.getReactApplicationContext(), subscriberPreface +  "onReconnected", subscriberInfo);
+        dispatchSubscriberEvent(subscriberKit, subscriberPreface + "onReconnected", null, null);
+        if (this.logLevel) {
+            printLogs("onReconnected: Subscriber reconnected. Stream: "+subscriberKit.getStream().getStreamId());
         }
-        printLogs("onReconnected: Subscriber reconnected. Stream: "+subscriberKit.getStream().getStreamId());
     }
 
     @Override
-    public void onError(SubscriberKit subscriberKit, OpentokError opentokError) {
-
-        String streamId = Utils.getStreamIdBySubscriber(subscriberKit);
-        if (streamId.length() > 0) {
-            ConcurrentHashMap<String, Stream> streams = sharedState.getSubscriberStreams();
-            Stream mStream = streams.get(streamId);
-            WritableMap subscriberInfo = Arguments.createMap();
-            if (mStream != null) {
-                subscriberInfo.putMap("stream", EventUtils.prepareJSStreamMap(mStream, subscriberKit.getSession()));
-            }
-            subscriberInfo.putMap("error", EventUtils.prepareJSErrorMap(opentokError));
-            sendEventMap(this.getReactApplicationContext(), subscriberPreface +  "onError", subscriberInfo);
+    public void onError(final SubscriberKit subscriberKit, final OpentokError opentokError) {
+
+        final String event = subscriberPreface + "onError";
+        if (eventRegistry.hasListeners(event)) {
+            dispatch(subscriberKit.getSession(), new Runnable() {
+                @Override
+                public void run() {
+                    String streamId = Utils.getStreamIdBySubscriber(subscriberKit);
+                    if (streamId.length() > 0) {
+                        WritableMap subscriberInfo = Arguments.createMap();
+                        putSubscriberStream(subscriberInfo, streamId, subscriberKit.getSession());
+                        subscriberInfo.putMap("error", EventUtils.prepareJSErrorMap(opentokError));
+                        sendEventMap(getReactApplicationContext(), event, subscriberInfo);
+                    }
+                }
+            });
+        }
+        if (this.logLevel) {
+            printLogs("onError: "+opentokError.getErrorDomain() + " : " +
+                    opentokError.getErrorCode() +  " - "+opentokError.getMessage());
         }
-        printLogs("onError: "+opentokError.getErrorDomain() + " : " +
-                opentokError.getErrorCode() +  " - "+opentokError.getMessage());
 
     }
 
     @Override
-    public void onSignalReceived(Session session, String type, String data, Connection connection) {
+    public void onSignalReceived(final Session session, final String type, final String data, final Connection connection) {
 
-        WritableMap signalInfo = Arguments.createMap();
-        signalInfo.putString("type", type);
-        signalInfo.putString("data", data);
-        if(connection != null) {
-            signalInfo.putString("connectionId", connection.getConnectionId());
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        if (eventNames == null) {
+            return;
+        }
+        final String event = eventNames.onSignalReceived;
+        if (eventRegistry.hasListeners(event)) {
+            dispatch(session, new Runnable() {
+                @Override
+                public void run() {
+                    WritableMap signalInfo = Arguments.createMap();
+                    signalInfo.putString("type", type);
+                    signalInfo.putString("data", data);
+                    if(connection != null) {
+                        signalInfo.putString("connectionId", connection.getConnectionId());
+                    }
+                    signalInfo.putString("sessionId", session.getSessionId());
+                    sendEventMap(getReactApplicationContext(), event, signalInfo, OTEventQueue.POLICY_FIFO, null);
+                }
+            });
+        }
+        if (this.logLevel) {
+            printLogs("onSignalReceived: Data: " + data + " Type: " + type);
         }
-        signalInfo.putString("sessionId", session.getSessionId());
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onSignalReceived", signalInfo);
-        printLogs("onSignalReceived: Data: " + data + " Type: " + type);
     }
 
     @Override
-    public void onAudioStats(SubscriberKit subscriber, SubscriberKit.SubscriberAudioStats stats) {
+    public void onAudioStats(final SubscriberKit subscriber, final SubscriberKit.SubscriberAudioStats stats) {
 
-        String streamId = Utils.getStreamIdBySubscriber(subscriber);
-        if (streamId.length() > 0) {
-            ConcurrentHashMap<String, Stream> streams = sharedState.getSubscriberStreams();
-            Stream mStream = streams.get(streamId);
-            WritableMap subscriberInfo = Arguments.createMap();
-            if (mStream != null) {
-                subscriberInfo.putMap("stream", EventUtils.prepareJSStreamMap(mStream, subscriber.getSession()));
-            }
-            subscriberInfo.putMap("audioStats", EventUtils.prepareAudioNetworkStats(stats));
-            sendEventMap(this.getReactApplicationContext(), subscriberPreface +  "onAudioStats", subscriberInfo);
+        final String streamId = Utils.getStreamIdBySubscriber(subscriber);
+        if (streamId.length() == 0) {
+            return;
+        }
+        // Samples are always recorded for getSubscriberStats, events are only built when handled
+        final OTSubscriberStats mSubscriberStats = sharedState.getSubscriberStats().get(streamId);
+        if (mSubscriberStats != null) {
+            mSubscriberStats.addAudioSample(stats);
         }
+        final boolean summary = mSubscriberStats != null && eventRegistry.hasListeners(subscriberPreface + "onNetworkStatsSummary");
+        final boolean raw = (mSubscriberStats == null || mSubscriberStats.isStatsEventsEnabled())
+                && eventRegistry.hasListeners(subscriberPreface + "onAudioStats");
+        if (!summary && !raw) {
+            return;
+        }
+        dispatch(subscriber.getSession(), new Runnable() {
+            @Override
+            public void run() {
+                if (summary) {
+                    sendNetworkStatsSummary(streamId, mSubscriberStats);
+                }
+                if (raw) {
+                    WritableMap subscriberInfo = Arguments.createMap();
+                    putSubscriberStream(subscriberInfo, streamId, subscriber.getSession());
+                    subscriberInfo.putMap("audioStats", EventUtils.prepareAudioNetworkStats(stats));
+                    sendEventMap(getReactApplicationContext(), subscriberPreface +  "onAudioStats", subscriberInfo, OTEventQueue.POLICY_LATEST, streamId);
+                }
+            }
+        });
     }
 
     @Override
-    public void onVideoStats(SubscriberKit subscriber, SubscriberKit.SubscriberVideoStats stats) {
+    public void onVideoStats(final SubscriberKit subscriber, final SubscriberKit.SubscriberVideoStats stats) {
 
-        String streamId = Utils.getStreamIdBySubscriber(subscriber);
-        if (streamId.length() > 0) {
-            ConcurrentHashMap<String, Stream> streams = sharedState.getSubscriberStreams();
-            Stream mStream = streams.get(streamId);
-            WritableMap subscriberInfo = Arguments.createMap();
-            if (mStream != null) {
-                subscriberInfo.putMap("stream", EventUtils.prepareJSStreamMap(mStream, subscriber.getSession()));
-            }
-            subscriberInfo.putMap("videoStats", EventUtils.prepareVideoNetworkStats(stats));
-            sendEventMap(this.getReactApplicationContext(), subscriberPreface + "onVideoStats", subscriberInfo);
+        final String streamId = Utils.getStreamIdBySubscriber(subscriber);
+        if (streamId.length() == 0) {
+            return;
+        }
+        final OTSubscriberStats mSubscriberStats = sharedState.getSubscriberStats().get(streamId);
+        if (mSubscriberStats != null) {
+            mSubscriberStats.addVideoSample(stats);
         }
+        final boolean summary = mSubscriberStats != null && eventRegistry.hasListeners(subscriberPreface + "onNetworkStatsSummary");
+        final boolean raw = (mSubscriberStats == null || mSubscriberStats.isStatsEventsEnabled())
+                && eventRegistry.hasListeners(subscriberPreface + "onVideoStats");
+        if (!summary && !raw) {
+            return;
+        }
+        dispatch(subscriber.getSession(), new Runnable() {
+            @Override
+            public void run() {
+                if (summary) {
+                    sendNetworkStatsSummary(streamId, mSubscriberStats);
+                }
+                if (raw) {
+                    WritableMap subscriberInfo = Arguments.createMap();
+                    putSubscriberStream(subscriberInfo, streamId, subscriber.getSession());
+                    subscriberInfo.putMap("videoStats", EventUtils.prepareVideoNetworkStats(stats));
+                    sendEventMap(getReactApplicationContext(), subscriberPreface + "onVideoStats", subscriberInfo, OTEventQueue.POLICY_LATEST, streamId);
+                }
+            }
+        });
     }
 
     @Override
-    public void onAudioLevelUpdated(SubscriberKit subscriber, float audioLevel) {
-
-        String streamId = Utils.getStreamIdBySubscriber(subscriber);
-        if (streamId.length() > 0) {
-            ConcurrentHashMap<String, Stream> streams = sharedState.getSubscriberStreams();
-            Stream mStream = streams.get(streamId);
-            WritableMap subscriberInfo = Arguments.createMap();
-            if (mStream != null) {
-                subscriberInfo.putMap("stream", EventUtils.prepareJSStreamMap(mStream, subscriber.getSession()));
-            }
-            subscriberInfo.putString("audioLevel", String.valueOf(audioLevel));
-            sendEventMap(this.getReactApplicationContext(), subscriberPreface + "onAudioLevelUpdated", subscriberInfo);
+    public void onAudioLevelUpdated(final SubscriberKit subscriber, final float audioLevel) {
+
+        final boolean sampling = isSamplingAudioLevels(subscriber.getSession());
+        final boolean detecting = isDetectingActiveSpeaker(subscriber.getSession());
+        // The session's audioLevels event replaces the per-stream one while it is observed
+        final boolean listening = !sampling && eventRegistry.hasListeners(subscriberPreface + "onAudioLevelUpdated");
+        if (!sampling && !detecting && !listening) {
+            return;
         }
+        dispatch(subscriber.getSession(), new Runnable() {
+            @Override
+            public void run() {
+                String streamId = Utils.getStreamIdBySubscriber(subscriber);
+                if (streamId.length() > 0) {
+                    if (sampling) {
+                        sampleAudioLevel(subscriber.getSession(), streamId, audioLevel);
+                    }
+                    if (detecting) {
+                        detectActiveSpeaker(subscriber.getSession(), streamId, audioLevel);
+                    }
+                    if (!listening) {
+                        return;
+                    }
+                    WritableMap subscriberInfo = Arguments.createMap();
+                    putSubscriberStream(subscriberInfo, streamId, subscriber.getSession());
+                    subscriberInfo.putString("audioLevel", String.valueOf(audioLevel));
+                    sendEventMap(getReactApplicationContext(), subscriberPreface + "onAudioLevelUpdated", subscriberInfo, OTEventQueue.POLICY_LATEST, streamId);
+                }
+            }
+        });
     }
 
     @Override
     public void onVideoDisabled(SubscriberKit subscriber, String reason) {
 
-        String streamId = Utils.getStreamIdBySubscriber(subscriber);
-        if (streamId.length() > 0) {
-            ConcurrentHashMap<String, Stream> streams = sharedState.getSubscriberStreams();
-            Stream mStream = streams.get(streamId);
-            WritableMap subscriberInfo = Arguments.createMap();
-            if (mStream != null) {
-                subscriberInfo.putMap("stream", EventUtils.prepareJSStreamMap(mStream, subscriber.getSession()));
-            }
-            subscriberInfo.putString("reason", reason);
-            sendEventMap(this.getReactApplicationContext(), subscriberPreface + "onVideoDisabled", subscriberInfo);
+        dispatchSubscriberEvent(subscriber, subscriberPreface + "onVideoDisabled", "reason", reason);
+        if (this.logLevel) {
+            printLogs("onVideoDisabled " + reason);
         }
-        printLogs("onVideoDisabled " + reason);
     }
 
     @Override
     public void onVideoEnabled(SubscriberKit subscriber, String reason) {
 
-        String streamId = Utils.getStreamIdBySubscriber(subscriber);
-        if (streamId.length() > 0) {
-            ConcurrentHashMap<String, Stream> streams = sharedState.getSubscriberStreams();
-            Stream mStream = streams.get(streamId);
-            WritableMap subscriberInfo = Arguments.createMap();
-            if (mStream != null) {
-                subscriberInfo.putMap("stream", EventUtils.prepareJSStreamMap(mStream, subscriber.getSession()));
-            }
-            subscriberInfo.putString("reason", reason);
-            sendEventMap(this.getReactApplicationContext(), subscriberPreface + "onVideoEnabled", subscriberInfo);
+        dispatchSubscriberEvent(subscriber, subscriberPreface + "onVideoEnabled", "reason", reason);
+        if (this.logLevel) {
+            printLogs("onVideoEnabled " + reason);
         }
-        printLogs("onVideoEnabled " + reason);
     }
 
     @Override
     public void onVideoDisableWarning(SubscriberKit subscriber) {
 
-        String streamId = Utils.getStreamIdBySubscriber(subscriber);
-        if (streamId.length() > 0) {
-            ConcurrentHashMap<String, Stream> streams = sharedState.getSubscriberStreams();
-            Stream mStream = streams.get(streamId);
-            WritableMap subscriberInfo = Arguments.createMap();
-            if (mStream != null) {
-                subscriberInfo.putMap("stream", EventUtils.prepareJSStreamMap(mStream, subscriber.getSession()));
-            }
-            sendEventMap(this.getReactApplicationContext(), subscriberPreface + "onVideoDisableWarning", subscriberInfo);
-        }
+        dispatchSubscriberEvent(subscriber, subscriberPreface + "onVideoDisableWarning", null, null);
         printLogs("onVideoDisableWarning");
     }
 
     @Override
     public void onVideoDisableWarningLifted(SubscriberKit subscriber) {
 
-        String streamId = Utils.getStreamIdBySubscriber(subscriber);
-        if (streamId.length() > 0) {
-            ConcurrentHashMap<String, Stream> streams = sharedState.getSubscriberStreams();
-            Stream mStream = streams.get(streamId);
-            WritableMap subscriberInfo = Arguments.createMap();
-            if (mStream != null) {
-                subscriberInfo.putMap("stream", EventUtils.prepareJSStreamMap(mStream, subscriber.getSession()));
-            }
-            sendEventMap(this.getReactApplicationContext(), subscriberPreface + "onVideoDisableWarningLifted", subscriberInfo);
-        }
+        dispatchSubscriberEvent(subscriber, subscriberPreface + "onVideoDisableWarningLifted", null, null);
         printLogs("onVideoDisableWarningLifted");
     }
 
     @Override
     public void onVideoDataReceived(SubscriberKit subscriber) {
 
-        String streamId = Utils.getStreamIdBySubscriber(subscriber);
-        if (streamId.length() > 0) {
-            ConcurrentHashMap<String, Stream> streams = sharedState.getSubscriberStreams();
-            Stream mStream = streams.get(streamId);
-            WritableMap subscriberInfo = Arguments.createMap();
-            if (mStream != null) {
-                subscriberInfo.putMap("stream", EventUtils.prepareJSStreamMap(mStream, subscriber.getSession()));
-            }
-            sendEventMap(this.getReactApplicationContext(), subscriberPreface + "onVideoDataReceived", subscriberInfo);
-        }
+        dispatchSubscriberEvent(subscriber, subscriberPreface + "onVideoDataReceived", null, null);
     }
 
     @Override
-    public void onStreamHasAudioChanged(Session session, Stream stream, boolean Audio) {
-
-        WritableMap eventData = EventUtils.prepareStreamPropertyChangedEventData("hasAudio", !Audio, Audio, stream, session);
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onStreamPropertyChanged", eventData);
+    public void onStreamHasAudioChanged(final Session session, final Stream stream, final boolean Audio) {
+
+        // Captured now, so a task still queued cannot pick up a later change
+        final OTStreamDescriptor descriptor = sharedState.getStreamDescriptor(stream, session).withHasAudio(Audio);
+        sharedState.updateStreamDescriptor(stream.getStreamId(), descriptor);
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        if (eventNames == null) {
+            return;
+        }
+        final String event = eventNames.onStreamPropertyChanged;
+        if (eventRegistry.hasListeners(event)) {
+            dispatch(session, new Runnable() {
+                @Override
+                public void run() {
+                    WritableMap eventData = EventUtils.prepareStreamPropertyChangedEventData("hasAudio", !Audio, Audio, descriptor, isCompactEvents(session));
+                    sendEventMap(getReactApplicationContext(), event, eventData);
+                }
+            });
+        }
         printLogs("onStreamHasAudioChanged");
     }
     @Override
-    public void onStreamHasVideoChanged(Session session, Stream stream, boolean Video) {
+    public void onStreamHasVideoChanged(final Session session, final Stream stream, final boolean Video) {
 
-        WritableMap eventData = EventUtils.prepareStreamPropertyChangedEventData("hasVideo", !Video, Video, stream, session);
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onStreamPropertyChanged", eventData);
+        final OTStreamDescriptor descriptor = sharedState.getStreamDescriptor(stream, session).withHasVideo(Video);
+        sharedState.updateStreamDescriptor(stream.getStreamId(), descriptor);
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        if (eventNames == null) {
+            return;
+        }
+        final String event = eventNames.onStreamPropertyChanged;
+        if (eventRegistry.hasListeners(event)) {
+            dispatch(session, new Runnable() {
+                @Override
+                public void run() {
+                    WritableMap eventData = EventUtils.prepareStreamPropertyChangedEventData("hasVideo", !Video, Video, descriptor, isCompactEvents(session));
+                    sendEventMap(getReactApplicationContext(), event, eventData);
+                }
+            });
+        }
         printLogs("onStreamHasVideoChanged");
     }
 
     @Override
-    public void onStreamVideoDimensionsChanged(Session session, Stream stream, int width, int height) {
+    public void onStreamVideoDimensionsChanged(final Session session, final Stream stream, final int width, final int height) {
         ConcurrentHashMap<String, Stream> mSubscriberStreams = sharedState.getSubscriberStreams();
         Stream mStream = mSubscriberStreams.get(stream.getStreamId());
-        WritableMap oldVideoDimensions = Arguments.createMap();
-        if ( mStream != null ){
-            oldVideoDimensions.putInt("height", mStream.getVideoHeight());
-            oldVideoDimensions.putInt("width", mStream.getVideoWidth());
-        }
-        WritableMap newVideoDimensions = Arguments.createMap();
-        newVideoDimensions.putInt("height", height);
-        newVideoDimensions.putInt("width", width);
-        WritableMap eventData = EventUtils.prepareStreamPropertyChangedEventData("videoDimensions", oldVideoDimensions, newVideoDimensions, stream, session);
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onStreamPropertyChanged", eventData);
+        final boolean hasOldVideoDimensions = mStream != null;
+        final int oldHeight = hasOldVideoDimensions ? mStream.getVideoHeight() : 0;
+        final int oldWidth = hasOldVideoDimensions ? mStream.getVideoWidth() : 0;
+        final OTStreamDescriptor descriptor = sharedState.getStreamDescriptor(stream, session).withVideoDimensions(width, height);
+        sharedState.updateStreamDescriptor(stream.getStreamId(), descriptor);
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        if (eventNames == null) {
+            return;
+        }
+        final String event = eventNames.onStreamPropertyChanged;
+        if (eventRegistry.hasListeners(event)) {
+            dispatch(session, new Runnable() {
+                @Override
+                public void run() {
+                    WritableMap oldVideoDimensions = Arguments.createMap();
+                    if (hasOldVideoDimensions) {
+                        oldVideoDimensions.putInt("height", oldHeight);
+                        oldVideoDimensions.putInt("width", oldWidth);
+                    }
+                    WritableMap newVideoDimensions = Arguments.createMap();
+                    newVideoDimensions.putInt("height", height);
+                    newVideoDimensions.putInt("width", width);
+                    WritableMap eventData = EventUtils.prepareStreamPropertyChangedEventData("videoDimensions", oldVideoDimensions, newVideoDimensions, descriptor, isCompactEvents(session));
+                    sendEventMap(getReactApplicationContext(), event, eventData);
+                }
+            });
+        }
         printLogs("onStreamVideoDimensionsChanged");
 
     }
 
     @Override
-    public void onStreamVideoTypeChanged(Session session, Stream stream, Stream.StreamVideoType videoType) {
-
-        ConcurrentHashMap<String, Stream> mSubscriberStreams = sharedState.getSubscriberStreams();
-        String oldVideoType = stream.getStreamVideoType().toString();
-        WritableMap eventData = EventUtils.prepareStreamPropertyChangedEventData("videoType", oldVideoType, videoType.toString(), stream, session);
-        sendEventMap(this.getReactApplicationContext(), session.getSessionId() + ":" + sessionPreface + "onStreamPropertyChanged", eventData);
+    public void onStreamVideoTypeChanged(final Session session, final Stream stream, final Stream.StreamVideoType videoType) {
+
+        final String oldVideoType = stream.getStreamVideoType().toString();
+        final OTStreamDescriptor descriptor = sharedState.getStreamDescriptor(stream, session).withVideoType(videoType);
+        sharedState.updateStreamDescriptor(stream.getStreamId(), descriptor);
+        final OTSessionEventNames eventNames = getSessionEventNames(session);
+        if (eventNames == null) {
+            return;
+        }
+        final String event = eventNames.onStreamPropertyChanged;
+        if (eventRegistry.hasListeners(event)) {
+            dispatch(session, new Runnable() {
+                @Override
+                public void run() {
+                    WritableMap eventData = EventUtils.prepareStreamPropertyChangedEventData("videoType", oldVideoType, videoType.toString(), descriptor, isCompactEvents(session));
+                    sendEventMap(getReactApplicationContext(), event, eventData);
+                }
+            });
+        }
         printLogs("onStreamVideoTypeChanged");
     }
 
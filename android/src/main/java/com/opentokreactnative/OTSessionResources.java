@@ -0,0 +1,113 @@
+package com.opentokreactnative;
+
+import android.support.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Everything owned by one session: its per-session event helpers and the
+ * ids of the streams, subscribers, publishers and connections it registered in the
+ * shared OTRN indexes, so disconnecting can release them all at once.
+ */
+public class OTSessionResources {
+
+    private final String sessionId;
+    private final boolean compactEvents;
+    private final OTSessionEventNames eventNames;
+    private final OTAudioLevelSampler audioLevelSampler;
+    private final OTActiveSpeakerDetector activeSpeakerDetector;
+    private final OTEventPipeline eventPipeline;
+    private final OTConnectionIndex connectionIndex;
+    private final OTVideoAdmission videoAdmission;
+    private final boolean suspendVideoInBackground;
+    private final Set<String> streamIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Set<String> subscriberIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Set<String> publisherIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Set<String> connectionIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    public OTSessionResources(String sessionId, boolean compactEvents, int audioLevelRate, int maxVideoSubscribers,
+                              boolean suspendVideoInBackground, @Nullable OTConnectionIndex connectionIndex) {
+
+        this.sessionId = sessionId;
+        this.compactEvents = compactEvents;
+        this.eventNames = new OTSessionEventNames(sessionId);
+        this.audioLevelSampler = new OTAudioLevelSampler(audioLevelRate);
+        this.activeSpeakerDetector = new OTActiveSpeakerDetector();
+        this.eventPipeline = new OTEventPipeline(sessionId);
+        this.connectionIndex = connectionIndex;
+        this.videoAdmission = new OTVideoAdmission(maxVideoSubscribers);
+        this.suspendVideoInBackground = suspendVideoInBackground;
+    }
+
+    public String getSessionId() {
+
+        return this.sessionId;
+    }
+
+    public boolean isCompactEvents() {
+
+        return this.compactEvents;
+    }
+
+    public OTSessionEventNames getEventNames() {
+
+        return this.eventNames;
+    }
+
+    public OTAudioLevelSampler getAudioLevelSampler() {
+
+        return this.audioLevelSampler;
+    }
+
+    public OTActiveSpeakerDetector getActiveSpeakerDetector() {
+
+        return this.activeSpeakerDetector;
+    }
+
+    public OTEventPipeline getEventPipeline() {
+
+        return this.eventPipeline;
+    }
+
+    /**
+     * The bounded connection index of a large session, or null when the
+     * session's connections are kept in the shared OTRN index.
+     */
+    @Nullable
+    public OTConnectionIndex getConnectionIndex() {
+
+        return this.connectionIndex;
+    }
+
+    public OTVideoAdmission getVideoAdmission() {
+
+        return this.videoAdmission;
+    }
+
+    public boolean isSuspendVideoInBackground() {
+
+        return this.suspendVideoInBackground;
+    }
+
+    public Set<String> getStreamIds() {
+
+        return this.streamIds;
+    }
+
+    public Set<String> getSubscriberIds() {
+
+        return this.subscriberIds;
+    }
+
+    public Set<String> getPublisherIds() {
+
+        return this.publisherIds;
+    }
+
+    public Set<String> getConnectionIds() {
+
+        return this.connectionIds;
+    }
+}
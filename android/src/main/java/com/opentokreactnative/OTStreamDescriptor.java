@@ -0,0 +1,114 @@
+package com.opentokreactnative;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+import com.opentok.android.Connection;
+import com.opentok.android.Session;
+import com.opentok.android.Stream;
+
+/**
+ * Snapshot of the JS-visible fields of a stream. Most of them never change
+ * for the lifetime of a stream, so they are read and formatted once and the
+ * few mutable ones are replaced from the stream property callbacks.
+ */
+public final class OTStreamDescriptor {
+
+    private final String streamId;
+    private final String sessionId;
+    private final String creationTime;
+    private final String name;
+    private final String connectionId;
+    private final String connectionCreationTime;
+    private final String connectionData;
+    private final int width;
+    private final int height;
+    private final boolean hasAudio;
+    private final boolean hasVideo;
+    private final String videoType;
+
+    public OTStreamDescriptor(Stream stream, Session session) {
+
+        Connection connection = stream.getConnection();
+        this.streamId = stream.getStreamId();
+        this.sessionId = session.getSessionId();
+        this.creationTime = stream.getCreationTime().toString();
+        this.name = stream.getName();
+        this.connectionId = connection != null ? connection.getConnectionId() : null;
+        this.connectionCreationTime = connection != null ? connection.getCreationTime().toString() : null;
+        this.connectionData = connection != null ? connection.getData() : null;
+        this.width = stream.getVideoWidth();
+        this.height = stream.getVideoHeight();
+        this.hasAudio = stream.hasAudio();
+        this.hasVideo = stream.hasVideo();
+        this.videoType = getVideoType(stream.getStreamVideoType());
+    }
+
+    private OTStreamDescriptor(OTStreamDescriptor base, int width, int height, boolean hasAudio, boolean hasVideo, String videoType) {
+
+        this.streamId = base.streamId;
+        this.sessionId = base.sessionId;
+        this.creationTime = base.creationTime;
+        this.name = base.name;
+        this.connectionId = base.connectionId;
+        this.connectionCreationTime = base.connectionCreationTime;
+        this.connectionData = base.connectionData;
+        this.width = width;
+        this.height = height;
+        this.hasAudio = hasAudio;
+        this.hasVideo = hasVideo;
+        this.videoType = videoType;
+    }
+
+    public String getStreamId() {
+
+        return streamId;
+    }
+
+    public static String getVideoType(Stream.StreamVideoType streamVideoType) {
+
+        return Stream.StreamVideoType.StreamVideoTypeScreen.equals(streamVideoType) ? "screen" : "camera";
+    }
+
+    public OTStreamDescriptor withHasAudio(boolean hasAudio) {
+
+        return new OTStreamDescriptor(this, width, height, hasAudio, hasVideo, videoType);
+    }
+
+    public OTStreamDescriptor withHasVideo(boolean hasVideo) {
+
+        return new OTStreamDescriptor(this, width, height, hasAudio, hasVideo, videoType);
+    }
+
+    public OTStreamDescriptor withVideoDimensions(int width, int height) {
+
+        return new OTStreamDescriptor(this, width, height, hasAudio, hasVideo, videoType);
+    }
+
+    public OTStreamDescriptor withVideoType(Stream.StreamVideoType streamVideoType) {
+
+        return new OTStreamDescriptor(this, width, height, hasAudio, hasVideo, getVideoType(streamVideoType));
+    }
+
+    public WritableMap toWritableMap() {
+
+        WritableMap streamInfo = Arguments.createMap();
+        streamInfo.putString("streamId", streamId);
+        streamInfo.putInt("height", height);
+        streamInfo.putInt("width", width);
+        streamInfo.putString("creationTime", creationTime);
+        streamInfo.putString("connectionId", connectionId);
+        streamInfo.putString("sessionId", sessionId);
+        WritableMap connectionInfo = Arguments.createMap();
+        if (connectionId != null) {
+            connectionInfo.putString("connectionId", connectionId);
+            connectionInfo.putString("creationTime", connectionCreationTime);
+            connectionInfo.putString("data", connectionData);
+        }
+        streamInfo.putMap("connection", connectionInfo);
+        streamInfo.putString("name", name);
+        streamInfo.putBoolean("hasAudio", hasAudio);
+        streamInfo.putBoolean("hasVideo", hasVideo);
+        streamInfo.putString("videoType", videoType);
+        return streamInfo;
+    }
+}
@@ -1,8 +1,13 @@
 package com.opentokreactnative;
 
+import android.graphics.Rect;
 import android.opengl.GLSurfaceView;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.Gravity;
+import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.widget.FrameLayout;
 
 import com.facebook.react.uimanager.ThemedReactContext;
@@ -16,7 +21,56 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public class OTSubscriberLayout extends FrameLayout{
 
+    /**
+     * Notified on the UI thread when a subscriber view becomes visible, or
+     * once it has stayed hidden for {@link #VISIBILITY_GRACE_PERIOD} ms.
+     */
+    public interface VisibilityListener {
+        void onSubscriberVisibilityChanged(String streamId, boolean visible);
+    }
+
+    public static final int VISIBILITY_GRACE_PERIOD = 1000;
+    public static final int SIZE_DEBOUNCE_INTERVAL = 300;
+
     public OTRN sharedState;
+    private String streamId;
+    private boolean attached = false;
+    private boolean reportedVisible = true;
+    private boolean hiddenPending = false;
+    private final Rect visibleRect = new Rect();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private final Runnable reportHidden = new Runnable() {
+        @Override
+        public void run() {
+            hiddenPending = false;
+            reportVisibility(false);
+        }
+    };
+
+    private final Runnable applyPreferredQuality = new Runnable() {
+        @Override
+        public void run() {
+            Subscriber mSubscriber = sharedState.getSubscribers().get(streamId);
+            if (mSubscriber != null) {
+                sharedState.getSubscriberQuality().apply(streamId, mSubscriber, getWidth(), getHeight());
+            }
+        }
+    };
+
+    private final ViewTreeObserver.OnScrollChangedListener scrollChangedListener = new ViewTreeObserver.OnScrollChangedListener() {
+        @Override
+        public void onScrollChanged() {
+            updateVisibility();
+        }
+    };
+
+    private final ViewTreeObserver.OnGlobalLayoutListener globalLayoutListener = new ViewTreeObserver.OnGlobalLayoutListener() {
+        @Override
+        public void onGlobalLayout() {
+            updateVisibility();
+        }
+    };
 
     public OTSubscriberLayout(ThemedReactContext reactContext) {
 
@@ -26,6 +80,7 @@ public class OTSubscriberLayout extends FrameLayout{
 
     public void createSubscriberView(String streamId) {
 
+        this.streamId = streamId;
         ConcurrentHashMap<String, Subscriber> mSubscribers = sharedState.getSubscribers();
         ConcurrentHashMap<String, String> androidOnTopMap = sharedState.getAndroidOnTopMap();
         ConcurrentHashMap<String, String> androidZOrderMap = sharedState.getAndroidZOrderMap();
@@ -59,6 +114,91 @@ public class OTSubscriberLayout extends FrameLayout{
             addView(mSubscriberViewContainer, 0);
             mSubscriberViewContainer.addView(mSubscriber.getView());
             requestLayout();
+            if (getWidth() > 0 && getHeight() > 0) {
+                handler.post(applyPreferredQuality);
+            }
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+
+        super.onAttachedToWindow();
+        attached = true;
+        getViewTreeObserver().addOnScrollChangedListener(scrollChangedListener);
+        getViewTreeObserver().addOnGlobalLayoutListener(globalLayoutListener);
+        updateVisibility();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+
+        getViewTreeObserver().removeOnScrollChangedListener(scrollChangedListener);
+        getViewTreeObserver().removeOnGlobalLayoutListener(globalLayoutListener);
+        attached = false;
+        handler.removeCallbacks(applyPreferredQuality);
+        updateVisibility();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+
+        super.onWindowVisibilityChanged(visibility);
+        updateVisibility();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+
+        super.onVisibilityChanged(changedView, visibility);
+        updateVisibility();
+    }
+
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        if (streamId != null) {
+            handler.removeCallbacks(applyPreferredQuality);
+            handler.postDelayed(applyPreferredQuality, SIZE_DEBOUNCE_INTERVAL);
+        }
+        updateVisibility();
+    }
+
+    private boolean isVisibleOnScreen() {
+
+        return attached && getWindowVisibility() == VISIBLE && isShown()
+                && getWidth() > 0 && getHeight() > 0 && getGlobalVisibleRect(visibleRect);
+    }
+
+    private void updateVisibility() {
+
+        if (streamId == null) {
+            return;
+        }
+        // The grace timer starts on the visible to hidden transition only, so the
+        // stream of scroll and layout callbacks during a fling does not restart it
+        if (isVisibleOnScreen()) {
+            if (hiddenPending) {
+                hiddenPending = false;
+                handler.removeCallbacks(reportHidden);
+            }
+            if (!reportedVisible) {
+                reportVisibility(true);
+            }
+        } else if (reportedVisible && !hiddenPending) {
+            hiddenPending = true;
+            handler.postDelayed(reportHidden, VISIBILITY_GRACE_PERIOD);
+        }
+    }
+
+    private void reportVisibility(boolean visible) {
+
+        reportedVisible = visible;
+        VisibilityListener listener = sharedState.getSubscriberVisibilityListener();
+        if (listener != null) {
+            listener.onSubscriberVisibilityChanged(streamId, visible);
         }
     }
 
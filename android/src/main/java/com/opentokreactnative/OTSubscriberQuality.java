@@ -0,0 +1,71 @@
+package com.opentokreactnative;
+
+import com.opentok.android.SubscriberKit;
+import com.opentok.android.VideoUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matches each subscriber's preferred resolution and frame rate to the size
+ * its view is laid out at. View sizes are bucketed into tiers so that small
+ * layout changes do not re-negotiate the simulcast layer.
+ */
+public class OTSubscriberQuality {
+
+    private static final int[] TIER_HEIGHTS = {180, 360, 720};
+    private static final int[] TIER_WIDTHS = {320, 640, 1280};
+    private static final float[] TIER_FRAME_RATES = {15f, 30f, 30f};
+    private static final int TIER_FULL = TIER_HEIGHTS.length;
+    private static final int FULL_WIDTH = 1920;
+    private static final int FULL_HEIGHT = 1080;
+    private static final float FULL_FRAME_RATE = 30f;
+
+    private final ConcurrentHashMap<String, Boolean> enabledStreams = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> appliedTiers = new ConcurrentHashMap<>();
+
+    public void setEnabled(String streamId, boolean enabled) {
+
+        enabledStreams.put(streamId, enabled);
+    }
+
+    public void remove(String streamId) {
+
+        enabledStreams.remove(streamId);
+        appliedTiers.remove(streamId);
+    }
+
+    /**
+     * Applies the tier matching a view of width x height pixels to the
+     * subscriber, unless the subscriber already uses it.
+     */
+    public void apply(String streamId, SubscriberKit subscriber, int width, int height) {
+
+        if (!Boolean.TRUE.equals(enabledStreams.get(streamId)) || width <= 0 || height <= 0) {
+            return;
+        }
+        int tier = getTier(width, height);
+        Integer appliedTier = appliedTiers.put(streamId, tier);
+        if (appliedTier != null && appliedTier == tier) {
+            return;
+        }
+        if (tier == TIER_FULL) {
+            subscriber.setPreferredResolution(new VideoUtils.Size(FULL_WIDTH, FULL_HEIGHT));
+            subscriber.setPreferredFrameRate(FULL_FRAME_RATE);
+        } else {
+            subscriber.setPreferredResolution(new VideoUtils.Size(TIER_WIDTHS[tier], TIER_HEIGHTS[tier]));
+            subscriber.setPreferredFrameRate(TIER_FRAME_RATES[tier]);
+        }
+    }
+
+    private static int getTier(int width, int height) {
+
+        // Compare the short side so portrait and landscape tiles map alike
+        int shortSide = Math.min(width, height);
+        for (int i = 0; i < TIER_HEIGHTS.length; i++) {
+            if (shortSide <= TIER_HEIGHTS[i]) {
+                return i;
+            }
+        }
+        return TIER_FULL;
+    }
+}
@@ -0,0 +1,199 @@
+package com.opentokreactnative;
+
+import android.os.SystemClock;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+import com.opentok.android.SubscriberKit;
+
+/**
+ * Keeps the most recent audio and video network stats samples of a
+ * subscriber in fixed-size ring buffers and derives bitrate, packet loss
+ * and bitrate trend over that sliding window.
+ */
+public class OTSubscriberStats {
+
+    public static final int DEFAULT_SUMMARY_INTERVAL = 5000;
+
+    private final SampleBuffer audio = new SampleBuffer();
+    private final SampleBuffer video = new SampleBuffer();
+    private final long summaryInterval;
+    private final boolean statsEventsEnabled;
+    private long lastSummaryTime;
+
+    public OTSubscriberStats(int summaryInterval, boolean statsEventsEnabled) {
+
+        this.summaryInterval = summaryInterval > 0 ? summaryInterval : DEFAULT_SUMMARY_INTERVAL;
+        this.statsEventsEnabled = statsEventsEnabled;
+        this.lastSummaryTime = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * @return whether the raw audioStats/videoStats events were requested for this subscriber.
+     */
+    public boolean isStatsEventsEnabled() {
+
+        return statsEventsEnabled;
+    }
+
+    public synchronized void addAudioSample(SubscriberKit.SubscriberAudioStats stats) {
+
+        audio.add(SystemClock.elapsedRealtime(), stats.audioBytesReceived, stats.audioPacketsReceived, stats.audioPacketsLost);
+    }
+
+    public synchronized void addVideoSample(SubscriberKit.SubscriberVideoStats stats) {
+
+        video.add(SystemClock.elapsedRealtime(), stats.videoBytesReceived, stats.videoPacketsReceived, stats.videoPacketsLost);
+    }
+
+    /**
+     * @return true once per summary interval; the caller is expected to emit a summary.
+     */
+    public synchronized boolean isSummaryDue() {
+
+        long now = SystemClock.elapsedRealtime();
+        if (now - lastSummaryTime < summaryInterval) {
+            return false;
+        }
+        lastSummaryTime = now;
+        return true;
+    }
+
+    public synchronized WritableMap prepareSummary(String streamId) {
+
+        WritableMap summary = Arguments.createMap();
+        summary.putString("streamId", streamId);
+        summary.putMap("audio", audio.summarize());
+        summary.putMap("video", video.summarize());
+        return summary;
+    }
+
+    /**
+     * The latest raw audioStats and videoStats samples together with the
+     * summary, so one pull returns everything the push events would carry.
+     * The raw samples are the SDK's int counters, as in the push events.
+     */
+    public synchronized WritableMap prepareStats(String streamId) {
+
+        WritableMap latestStats = prepareSummary(streamId);
+        if (audio.size > 0) {
+            WritableMap audioStats = Arguments.createMap();
+            audioStats.putInt("audioPacketsLost", audio.rawLost);
+            audioStats.putInt("audioBytesReceived", audio.rawBytes);
+            audioStats.putInt("audioPacketsReceived", audio.rawPackets);
+            latestStats.putMap("audioStats", audioStats);
+        }
+        if (video.size > 0) {
+            WritableMap videoStats = Arguments.createMap();
+            videoStats.putInt("videoPacketsLost", video.rawLost);
+            videoStats.putInt("videoBytesReceived", video.rawBytes);
+            videoStats.putInt("videoPacketsReceived", video.rawPackets);
+            latestStats.putMap("videoStats", videoStats);
+        }
+        return latestStats;
+    }
+
+    /**
+     * Stores running 64-bit totals accumulated from the deltas of the SDK's
+     * int counters, so rates stay correct when a counter wraps or restarts.
+     */
+    private static class SampleBuffer {
+
+        private static final int CAPACITY = 16;
+
+        private final long[] times = new long[CAPACITY];
+        private final long[] bytes = new long[CAPACITY];
+        private final long[] packets = new long[CAPACITY];
+        private final long[] lost = new long[CAPACITY];
+        private int head = 0;
+        private int size = 0;
+        private int rawBytes;
+        private int rawPackets;
+        private int rawLost;
+        private long totalBytes;
+        private long totalPackets;
+        private long totalLost;
+
+        void add(long time, int bytesReceived, int packetsReceived, int packetsLost) {
+
+            if (size == 0) {
+                totalBytes = bytesReceived & 0xFFFFFFFFL;
+                totalPackets = packetsReceived & 0xFFFFFFFFL;
+                totalLost = packetsLost & 0xFFFFFFFFL;
+            } else {
+                totalBytes += delta(rawBytes, bytesReceived);
+                totalPackets += delta(rawPackets, packetsReceived);
+                totalLost += delta(rawLost, packetsLost);
+            }
+            rawBytes = bytesReceived;
+            rawPackets = packetsReceived;
+            rawLost = packetsLost;
+            times[head] = time;
+            bytes[head] = totalBytes;
+            packets[head] = totalPackets;
+            lost[head] = totalLost;
+            head = (head + 1) % CAPACITY;
+            if (size < CAPACITY) {
+                size++;
+            }
+        }
+
+        WritableMap summarize() {
+
+            WritableMap summary = Arguments.createMap();
+            int last = index(size - 1);
+            if (size < 2) {
+                // Rates need two samples; the counters are still reported so every summary has the same keys
+                summary.putDouble("bitrate", 0);
+                summary.putDouble("packetLoss", 0);
+                summary.putDouble("bitrateTrend", 0);
+                summary.putDouble("packetsReceived", size > 0 ? packets[last] : 0);
+                summary.putDouble("packetsLost", size > 0 ? lost[last] : 0);
+                return summary;
+            }
+            int first = index(0);
+            int middle = index(size / 2);
+            summary.putDouble("bitrate", bitrate(first, last));
+            summary.putDouble("packetLoss", packetLoss(first, last));
+            summary.putDouble("bitrateTrend", bitrate(middle, last) - bitrate(first, middle));
+            summary.putDouble("packetsReceived", packets[last]);
+            summary.putDouble("packetsLost", lost[last]);
+            return summary;
+        }
+
+        private int index(int offset) {
+
+            return (head - size + offset + CAPACITY) % CAPACITY;
+        }
+
+        /**
+         * Difference of two unsigned 32-bit counter readings. A counter that
+         * passed 2^32 gives a small positive delta; a reading that went
+         * backwards means the counter restarted, e.g. on reconnect.
+         */
+        private static long delta(int previous, int current) {
+
+            long delta = (current - previous) & 0xFFFFFFFFL;
+            return delta > Integer.MAX_VALUE ? current & 0xFFFFFFFFL : delta;
+        }
+
+        private double bitrate(int from, int to) {
+
+            long elapsed = times[to] - times[from];
+            if (elapsed <= 0) {
+                return 0;
+            }
+            return (bytes[to] - bytes[from]) * 8 * 1000.0 / elapsed;
+        }
+
+        private double packetLoss(int from, int to) {
+
+            long lostDelta = lost[to] - lost[from];
+            long receivedDelta = packets[to] - packets[from];
+            if (lostDelta + receivedDelta == 0) {
+                return 0;
+            }
+            return lostDelta * 100.0 / (lostDelta + receivedDelta);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.opentokreactnative;
+
+import android.os.SystemClock;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Chooses which subscribers of a session may receive video when the session
+ * caps the number of concurrent video decoders. Pinned streams are admitted
+ * first, then the streams already admitted, then the loudest speakers. A
+ * speaker only replaces an admitted stream once that stream has held its slot
+ * for MIN_HOLD ms and the speaker is clearly louder, so admission does not
+ * churn between similar speakers.
+ */
+public class OTVideoAdmission {
+
+    private static final long MIN_HOLD = 3000;
+    private static final float SWAP_RATIO = 1.5f;
+
+    private int maxVideoSubscribers;
+    private final LinkedHashSet<String> pinned = new LinkedHashSet<>();
+    private LinkedHashSet<String> admitted = new LinkedHashSet<>();
+    private final HashMap<String, Long> admittedTimes = new HashMap<>();
+
+    public OTVideoAdmission(int maxVideoSubscribers) {
+
+        this.maxVideoSubscribers = maxVideoSubscribers;
+    }
+
+    public synchronized void setMaxVideoSubscribers(int maxVideoSubscribers) {
+
+        this.maxVideoSubscribers = maxVideoSubscribers;
+    }
+
+    public synchronized void setPinned(Collection<String> streamIds) {
+
+        pinned.clear();
+        pinned.addAll(streamIds);
+    }
+
+    public synchronized boolean isEnabled() {
+
+        return maxVideoSubscribers > 0;
+    }
+
+    public synchronized boolean isAdmitted(String streamId) {
+
+        return maxVideoSubscribers <= 0 || admitted.contains(streamId);
+    }
+
+    /**
+     * Admits a new stream right away if the cap has a free slot, so a
+     * subscriber over the cap never starts receiving video before the next
+     * evaluation suppresses it.
+     * @return false when the stream has to wait for a slot.
+     */
+    public synchronized boolean tryAdmit(String streamId) {
+
+        if (maxVideoSubscribers <= 0 || admitted.contains(streamId)) {
+            return true;
+        }
+        if (admitted.size() >= maxVideoSubscribers) {
+            return false;
+        }
+        admitted.add(streamId);
+        admittedTimes.put(streamId, SystemClock.elapsedRealtime());
+        return true;
+    }
+
+    /**
+     * Recomputes the admitted set from the candidate subscribers and the
+     * current speaker ranking. Candidates are the subscribers whose video is
+     * requested and visible; the others never hold a slot.
+     * @return true when the admitted set changed.
+     */
+    public synchronized boolean evaluate(Collection<String> subscriberIds, OTActiveSpeakerDetector detector) {
+
+        if (maxVideoSubscribers <= 0) {
+            boolean changed = !admitted.isEmpty();
+            admitted.clear();
+            admittedTimes.clear();
+            return changed;
+        }
+        List<String> ranking = detector.getRanking();
+        LinkedHashSet<String> next = new LinkedHashSet<>();
+        for (String streamId : pinned) {
+            if (next.size() < maxVideoSubscribers && subscriberIds.contains(streamId)) {
+                next.add(streamId);
+            }
+        }
+        // Incumbents keep their slots, the best ranked ones first if the cap shrank
+        for (String streamId : ranking) {
+            if (next.size() < maxVideoSubscribers && admitted.contains(streamId) && subscriberIds.contains(streamId)) {
+                next.add(streamId);
+            }
+        }
+        for (String streamId : admitted) {
+            if (next.size() < maxVideoSubscribers && subscriberIds.contains(streamId)) {
+                next.add(streamId);
+            }
+        }
+        for (String streamId : ranking) {
+            if (next.size() < maxVideoSubscribers && subscriberIds.contains(streamId)) {
+                next.add(streamId);
+            }
+        }
+        for (String streamId : subscriberIds) {
+            if (next.size() < maxVideoSubscribers) {
+                next.add(streamId);
+            }
+        }
+
+        long now = SystemClock.elapsedRealtime();
+        for (String candidate : ranking) {
+            if (next.contains(candidate) || !subscriberIds.contains(candidate)) {
+                continue;
+            }
+            String weakest = null;
+            float weakestEnergy = Float.MAX_VALUE;
+            for (String streamId : next) {
+                Long admittedTime = admittedTimes.get(streamId);
+                if (pinned.contains(streamId) || (admittedTime != null && now - admittedTime < MIN_HOLD)) {
+                    continue;
+                }
+                float energy = detector.getEnergy(streamId);
+                if (energy < weakestEnergy) {
+                    weakest = streamId;
+                    weakestEnergy = energy;
+                }
+            }
+            if (weakest == null || detector.getEnergy(candidate) <= weakestEnergy * SWAP_RATIO) {
+                break;
+            }
+            next.remove(weakest);
+            next.add(candidate);
+        }
+
+        if (next.equals(admitted)) {
+            return false;
+        }
+        admittedTimes.keySet().retainAll(next);
+        for (String streamId : next) {
+            if (!admittedTimes.containsKey(streamId)) {
+                admittedTimes.put(streamId, now);
+            }
+        }
+        admitted = next;
+        return true;
+    }
+
+    public synchronized WritableMap prepareAdmission(String sessionId) {
+
+        WritableMap admissionInfo = Arguments.createMap();
+        WritableArray admittedStreams = Arguments.createArray();
+        for (String streamId : admitted) {
+            admittedStreams.pushString(streamId);
+        }
+        WritableArray pinnedStreams = Arguments.createArray();
+        for (String streamId : pinned) {
+            pinnedStreams.pushString(streamId);
+        }
+        admissionInfo.putString("sessionId", sessionId);
+        admissionInfo.putInt("maxVideoSubscribers", maxVideoSubscribers);
+        admissionInfo.putArray("admitted", admittedStreams);
+        admissionInfo.putArray("pinned", pinnedStreams);
+        return admissionInfo;
+    }
+}
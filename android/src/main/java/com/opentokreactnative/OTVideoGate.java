@@ -0,0 +1,97 @@
+package com.opentokreactnative;
+
+import com.opentok.android.SubscriberKit;
+
+/**
+ * Arbitrates a subscriber's video between what JS requested and the native
+ * reasons for suppressing it. Video is subscribed only when it is requested
+ * and no suppression reason is active, so lifting a reason never turns on
+ * video the app has turned off.
+ *
+ * Transitions arrive from the pipeline, the UI thread and the native modules
+ * thread, so each one applies the resulting state to the subscriber while
+ * holding the gate's lock and the SDK always ends up with the latest state.
+ */
+public class OTVideoGate {
+
+    public static final int REASON_HIDDEN = 1;
+    public static final int REASON_POLICY = 2;
+    public static final int REASON_BACKGROUND = 4;
+
+    private final SubscriberKit subscriber;
+    private final boolean pausesWhenHidden;
+    private boolean requested;
+    private int suppressedReasons;
+
+    public OTVideoGate(SubscriberKit subscriber, boolean requested, boolean pausesWhenHidden, int suppressedReasons) {
+
+        this.subscriber = subscriber;
+        this.requested = requested;
+        this.pausesWhenHidden = pausesWhenHidden;
+        this.suppressedReasons = suppressedReasons;
+    }
+
+    public boolean pausesWhenHidden() {
+
+        return this.pausesWhenHidden;
+    }
+
+    /**
+     * Returns true if the effective video state changed and was applied.
+     */
+    public synchronized boolean setRequested(boolean requested) {
+
+        boolean enabled = isVideoEnabled();
+        this.requested = requested;
+        return apply(enabled);
+    }
+
+    public synchronized boolean isRequested() {
+
+        return this.requested;
+    }
+
+    /**
+     * Returns true if the effective video state changed and was applied.
+     */
+    public synchronized boolean suppress(int reason) {
+
+        boolean enabled = isVideoEnabled();
+        suppressedReasons |= reason;
+        return apply(enabled);
+    }
+
+    /**
+     * Returns true if the effective video state changed and was applied.
+     */
+    public synchronized boolean release(int reason) {
+
+        boolean enabled = isVideoEnabled();
+        suppressedReasons &= ~reason;
+        return apply(enabled);
+    }
+
+    public synchronized boolean isVideoEnabled() {
+
+        return requested && suppressedReasons == 0;
+    }
+
+    /**
+     * Whether the stream competes for a video slot of the session: the app
+     * wants its video and its view is not hidden.
+     */
+    public synchronized boolean isAdmissionCandidate() {
+
+        return requested && (suppressedReasons & REASON_HIDDEN) == 0;
+    }
+
+    private boolean apply(boolean wasEnabled) {
+
+        boolean enabled = isVideoEnabled();
+        if (enabled == wasEnabled) {
+            return false;
+        }
+        subscriber.setSubscribeToVideo(enabled);
+        return true;
+    }
+}
@@ -7,6 +7,8 @@ import com.opentok.android.OpentokError;
 import com.opentok.android.Session;
 import com.opentok.android.Stream;
 import com.opentok.android.SubscriberKit;
+import com.opentokreactnative.OTRN;
+import com.opentokreactnative.OTStreamDescriptor;
 
 public final class EventUtils {
 
@@ -23,25 +25,10 @@ public final class EventUtils {
 
     public static WritableMap prepareJSStreamMap(Stream stream, Session session) {
 
-        WritableMap streamInfo = Arguments.createMap();
-        if (stream != null) {
-            streamInfo.putString("streamId", stream.getStreamId());
-            streamInfo.putInt("height", stream.getVideoHeight());
-            streamInfo.putInt("width", stream.getVideoWidth());
-            streamInfo.putString("creationTime", stream.getCreationTime().toString());
-            streamInfo.putString("connectionId", stream.getConnection().getConnectionId());
-            streamInfo.putString("sessionId", session.getSessionId());
-            streamInfo.putMap("connection", prepareJSConnectionMap(stream.getConnection()));
-            streamInfo.putString("name", stream.getName());
-            streamInfo.putBoolean("hasAudio", stream.hasAudio());
-            streamInfo.putBoolean("hasVideo", stream.hasVideo());
-            if (stream.getStreamVideoType().equals(Stream.StreamVideoType.StreamVideoTypeScreen)) {
-                streamInfo.putString("videoType", "screen");
-            } else {
-                streamInfo.putString("videoType", "camera");
-            }
+        if (stream == null) {
+            return Arguments.createMap();
         }
-        return streamInfo;
+        return OTRN.getSharedState().getStreamDescriptor(stream, session).toWritableMap();
     }
 
     public static WritableMap prepareJSErrorMap(OpentokError error) {
@@ -63,36 +50,46 @@ public final class EventUtils {
         return sessionInfo;
     }
 
-    public static WritableMap prepareStreamPropertyChangedEventData(String changedProperty, String oldValue, String newValue, Stream stream, Session session) {
+    public static WritableMap prepareStreamPropertyChangedEventData(String changedProperty, String oldValue, String newValue, OTStreamDescriptor descriptor, boolean compact) {
 
         WritableMap streamPropertyEventData = Arguments.createMap();
         streamPropertyEventData.putString("changedProperty", changedProperty);
         streamPropertyEventData.putString("oldValue", oldValue);
         streamPropertyEventData.putString("newValue", newValue);
-        streamPropertyEventData.putMap("stream", prepareJSStreamMap(stream, session));
+        putStreamReference(streamPropertyEventData, descriptor, compact);
         return streamPropertyEventData;
     }
 
-    public static WritableMap prepareStreamPropertyChangedEventData(String changedProperty, WritableMap oldValue, WritableMap newValue, Stream stream, Session session) {
+    public static WritableMap prepareStreamPropertyChangedEventData(String changedProperty, WritableMap oldValue, WritableMap newValue, OTStreamDescriptor descriptor, boolean compact) {
 
         WritableMap streamPropertyEventData = Arguments.createMap();
         streamPropertyEventData.putString("changedProperty", changedProperty);
         streamPropertyEventData.putMap("oldValue", oldValue);
         streamPropertyEventData.putMap("newValue", newValue);
-        streamPropertyEventData.putMap("stream", prepareJSStreamMap(stream, session));
+        putStreamReference(streamPropertyEventData, descriptor, compact);
         return streamPropertyEventData;
     }
 
-    public static WritableMap prepareStreamPropertyChangedEventData(String changedProperty, Boolean oldValue, Boolean newValue, Stream stream, Session session) {
+    public static WritableMap prepareStreamPropertyChangedEventData(String changedProperty, Boolean oldValue, Boolean newValue, OTStreamDescriptor descriptor, boolean compact) {
 
         WritableMap streamPropertyEventData = Arguments.createMap();
         streamPropertyEventData.putString("changedProperty", changedProperty);
         streamPropertyEventData.putBoolean("oldValue", oldValue);
         streamPropertyEventData.putBoolean("newValue", newValue);
-        streamPropertyEventData.putMap("stream", prepareJSStreamMap(stream, session));
+        putStreamReference(streamPropertyEventData, descriptor, compact);
         return streamPropertyEventData;
     }
 
+    // Compact events only carry the streamId; the JS layer resolves it against the streams it has already received
+    private static void putStreamReference(WritableMap eventData, OTStreamDescriptor descriptor, boolean compact) {
+
+        if (compact) {
+            eventData.putString("streamId", descriptor.getStreamId());
+        } else {
+            eventData.putMap("stream", descriptor.toWritableMap());
+        }
+    }
+
     public static WritableMap prepareAudioNetworkStats(SubscriberKit.SubscriberAudioStats stats) {
 
         WritableMap audioStats = Arguments.createMap();
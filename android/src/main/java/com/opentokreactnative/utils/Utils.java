@@ -1,15 +1,10 @@
 package com.opentokreactnative.utils;
 
 import com.opentok.android.OpentokError;
-import com.opentok.android.Publisher;
 import com.opentok.android.PublisherKit;
-import com.opentok.android.Subscriber;
 import com.opentok.android.SubscriberKit;
 import com.opentokreactnative.OTRN;
 
-import java.util.ArrayList;
-import java.util.Map;
-
 public final class Utils {
 
     public static boolean didConnectionFail(OpentokError errorCode) {
@@ -26,37 +21,31 @@ public final class Utils {
         }
     }
 
-    public static boolean contains(ArrayList array, String value) {
+    public static String getPublisherId(PublisherKit publisherKit) {
 
-        for (int i = 0; i < array.size(); i++) {
-            if (array.get(i).equals(value)) {
-                return true;
-            }
-        }
-        return false;
+        String publisherId = OTRN.sharedState.getPublisherIds().get(publisherKit);
+        return publisherId != null ? publisherId : "";
     }
 
-    public static String getPublisherId(PublisherKit publisherKit) {
-
-        Map<String, Publisher> publishers = OTRN.sharedState.getPublishers();
-        for (Map.Entry<String, Publisher> entry: publishers.entrySet()) {
-            Publisher mPublisher = entry.getValue();
-            if (mPublisher.equals(publisherKit)) {
-                return entry.getKey();
-            }
+    /**
+     * Returns the longest side, in pixels, of screen sharing frames for a
+     * publisher resolution.
+     */
+    public static int getScreenCaptureMaxDimension(String resolution) {
+
+        switch (resolution) {
+            case "LOW":
+                return 352;
+            case "HIGH":
+                return 1280;
+            default:
+                return 640;
         }
-        return "";
     }
 
     public static String getStreamIdBySubscriber(SubscriberKit subscriberKit) {
 
-        Map<String, Subscriber> subscribers = OTRN.sharedState.getSubscribers();
-        for (Map.Entry<String, Subscriber> entry: subscribers.entrySet()) {
-            Subscriber mSubcriber = entry.getValue();
-            if (mSubcriber.equals(subscriberKit)) {
-                return entry.getKey();
-            }
-        }
-        return "";
+        String streamId = OTRN.sharedState.getSubscriberStreamIds().get(subscriberKit);
+        return streamId != null ? streamId : "";
     }
 }
@@ -0,0 +1,64 @@
+package com.opentokreactnative;
+
+import com.opentok.android.Connection;
+import com.opentok.android.Stream;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OTRNTest {
+
+    private static Stream mockStream(String streamId, Connection connection) {
+
+        Stream stream = mock(Stream.class);
+        when(stream.getStreamId()).thenReturn(streamId);
+        when(stream.getConnection()).thenReturn(connection);
+        return stream;
+    }
+
+    private static Connection mockConnection(String connectionId) {
+
+        Connection connection = mock(Connection.class);
+        when(connection.getConnectionId()).thenReturn(connectionId);
+        return connection;
+    }
+
+    @Test
+    public void resolvesSignalTargetKnownOnlyThroughStream() {
+
+        OTRN sharedState = OTRN.getSharedState();
+        String sessionId = "regular-session";
+        sharedState.addSessionResources(new OTSessionResources(sessionId, false, 10, 0, false, null));
+        Connection connection = mockConnection("stream-only-connection");
+        sharedState.addSubscriberStream(sessionId, mockStream("stream-1", connection));
+
+        assertSame(connection, sharedState.getConnection(sessionId, "stream-only-connection"));
+        assertSame(connection, sharedState.getConnections().get("stream-only-connection"));
+    }
+
+    @Test
+    public void resolvesSignalTargetEvictedFromLargeSessionIndex() {
+
+        OTRN sharedState = OTRN.getSharedState();
+        String sessionId = "large-session";
+        sharedState.addSessionResources(new OTSessionResources(sessionId, false, 10, 0, false, new OTConnectionIndex(1, 1000)));
+        Connection connection = mockConnection("evicted-connection");
+        sharedState.addSubscriberStream(sessionId, mockStream("stream-2", connection));
+
+        assertSame(connection, sharedState.getConnection(sessionId, "evicted-connection"));
+    }
+
+    @Test
+    public void doesNotResolveUnknownSignalTarget() {
+
+        OTRN sharedState = OTRN.getSharedState();
+        String sessionId = "empty-session";
+        sharedState.addSessionResources(new OTSessionResources(sessionId, false, 10, 0, false, null));
+
+        assertNull(sharedState.getConnection(sessionId, "unknown-connection"));
+    }
+}
@@ -39,6 +39,31 @@ const setNativeEvents = (events) => {
   });
 };
 
+let eventBatchSubscription = null;
+let eventBatchingSessions = 0;
+
+const dispatchEventBatch = (batch) => {
+  each(batch, ({ name, data }) => {
+    nativeEvents.emit(name, data);
+  });
+};
+
+// Reference counted by the sessions that enabled batching, so the batch listener stays until the last one disconnects
+const enableEventBatching = () => {
+  eventBatchingSessions += 1;
+  if (eventBatchSubscription === null) {
+    eventBatchSubscription = nativeEvents.addListener('otrn:eventBatch', dispatchEventBatch);
+  }
+};
+
+const disableEventBatching = () => {
+  eventBatchingSessions = Math.max(0, eventBatchingSessions - 1);
+  if (eventBatchingSessions === 0 && eventBatchSubscription !== null) {
+    eventBatchSubscription.remove();
+    eventBatchSubscription = null;
+  }
+};
+
 const removeNativeEvents = (events) => {
   const eventNames = Object.keys(events);
   OT.removeNativeEvents(eventNames);
@@ -53,4 +78,6 @@ export {
   checkAndroidPermissions,
   setNativeEvents,
   removeNativeEvents,
+  enableEventBatching,
+  disableEventBatching,
 };
@@ -7,6 +7,7 @@ import { sanitizeProperties, sanitizePublisherEvents } from './helpers/OTPublish
 import OTPublisherView from './views/OTPublisherView';
 import { getOtrnErrorEventHandler } from './helpers/OTHelper';
 import { isConnected } from './helpers/OTSessionHelper';
+import { trackPublisherStreams } from './helpers/OTStreamHelper';
 import OTContext from './contexts/OTContext';
 
 const uuid = require('uuid/v4');
@@ -32,6 +33,9 @@ class OTPublisher extends Component {
     OT.setJSComponentEvents(this.componentEventsArray);
     if (this.context.sessionId) {
       this.sessionConnected = nativeEvents.addListener(`${this.context.sessionId}:${this.componentEvents.sessionConnected}`, () => this.sessionConnectedHandler());
+      if (Platform.OS === 'android') {
+        this.streamTracking = trackPublisherStreams(this.context.sessionId, this.state.publisherId);
+      }
     }
   }
   componentDidMount() {
@@ -66,6 +70,9 @@ class OTPublisher extends Component {
         this.otrnEventHandler(error);
       } else {
         this.sessionConnected.remove();
+        if (this.streamTracking) {
+          this.streamTracking.forEach(subscription => subscription.remove());
+        }
         OT.removeJSComponentEvents(this.componentEventsArray);
         removeNativeEvents(this.publisherEvents);
       }
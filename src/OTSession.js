@@ -1,12 +1,13 @@
 import React, { Component, Children, cloneElement } from 'react';
-import { View, ViewPropTypes } from 'react-native';
+import { View, ViewPropTypes, Platform } from 'react-native';
 import PropTypes from 'prop-types';
 import { pick, isNull } from 'underscore';
-import { setNativeEvents, removeNativeEvents,  OT } from './OT';
+import { setNativeEvents, removeNativeEvents, enableEventBatching, disableEventBatching, OT } from './OT';
 import { sanitizeSessionEvents, sanitizeSessionOptions, sanitizeSignalData,
    sanitizeCredentials, getConnectionStatus } from './helpers/OTSessionHelper';
 import { handleError } from './OTError';
 import { logOT, getOtrnErrorEventHandler } from './helpers/OTHelper';
+import { expandStreamEvents, trackSessionStreams, clearSessionStreams } from './helpers/OTStreamHelper';
 import OTContext from './contexts/OTContext';
 
 export default class OTSession extends Component {
@@ -21,9 +22,17 @@ export default class OTSession extends Component {
   initComponent = () => {
     const credentials = pick(this.props, ['apiKey', 'sessionId', 'token']);
     this.sanitizedCredentials = sanitizeCredentials(credentials);
+    this.sessionEvents = {};
     if (Object.keys(this.sanitizedCredentials).length === 3) {
-      const sessionEvents = sanitizeSessionEvents(this.sanitizedCredentials.sessionId, this.props.eventHandlers);
-      setNativeEvents(sessionEvents);
+      const { sessionId } = this.sanitizedCredentials;
+      this.sessionEvents = sanitizeSessionEvents(sessionId, this.props.eventHandlers);
+      if (Platform.OS === 'android' && this.props.options.compactEvents === true) {
+        // Compact events reference streams by id, so keep the stream table up to date before any handler runs
+        const streamPropertyChanged = `${sessionId}:session:onStreamPropertyChanged`;
+        this.streamTracking = trackSessionStreams(sessionId);
+        Object.assign(this.sessionEvents, expandStreamEvents(pick(this.sessionEvents, streamPropertyChanged)));
+      }
+      setNativeEvents(this.sessionEvents);
     }
   }
   componentDidMount() {
@@ -59,6 +68,10 @@ export default class OTSession extends Component {
   createSession(credentials, sessionOptions) {
     const { signal } = this.props;
     const { apiKey, sessionId, token } = credentials;
+    if (sessionOptions.enableEventBatching) {
+      this.eventBatching = true;
+      enableEventBatching();
+    }
     OT.initSession(apiKey, sessionId, sessionOptions);
     OT.connect(sessionId, token, (error) => {
       if (error) {
@@ -81,11 +94,20 @@ export default class OTSession extends Component {
   }
   disconnectSession() {
     OT.disconnectSession(this.props.sessionId, (disconnectError) => {
+      // The stream table is dropped either way, the component no longer handles this session's events
+      if (this.streamTracking) {
+        this.streamTracking.forEach(subscription => subscription.remove());
+        this.streamTracking = null;
+        clearSessionStreams(this.props.sessionId);
+      }
       if (disconnectError) {
         this.otrnEventHandler(disconnectError);
       } else {
-        const events = sanitizeSessionEvents(this.props.sessionId, this.props.eventHandlers);
-        removeNativeEvents(events);
+        removeNativeEvents(this.sessionEvents);
+        if (this.eventBatching) {
+          this.eventBatching = false;
+          disableEventBatching();
+        }
       }
     });
   }
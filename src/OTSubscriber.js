@@ -1,11 +1,12 @@
 import React, { Component } from 'react';
 import { View, Platform } from 'react-native';
 import PropTypes from 'prop-types';
-import { isNull, isUndefined, each, isEqual, isEmpty } from 'underscore';
+import { isNull, isUndefined, isBoolean, each, isEqual, isEmpty } from 'underscore';
 import { OT, nativeEvents, setNativeEvents, removeNativeEvents } from './OT';
 import OTSubscriberView from './views/OTSubscriberView';
 import { sanitizeSubscriberEvents, sanitizeProperties } from './helpers/OTSubscriberHelper';
 import { getOtrnErrorEventHandler } from './helpers/OTHelper';
+import { expandStreamEvents } from './helpers/OTStreamHelper';
 import OTContext from './contexts/OTContext';
 
 export default class OTSubscriber extends Component {
@@ -20,6 +21,8 @@ export default class OTSubscriber extends Component {
       streamCreated: Platform.OS === 'android' ? 'session:onStreamReceived' : 'session:streamCreated',
     };
     this.componentEventsArray = Object.values(this.componentEvents);
+    this.pendingSubscriptions = [];
+    this.pendingRemovals = [];
     this.otrnEventHandler = getOtrnErrorEventHandler(this.props.eventHandlers);
     this.initComponent();
   }
@@ -31,28 +34,58 @@ export default class OTSubscriber extends Component {
         stream => this.streamCreatedHandler(stream));
       this.streamDestroyed = nativeEvents.addListener(`${sessionId}:${this.componentEvents.streamDestroyed}`,
         stream => this.streamDestroyedHandler(stream));
-      const subscriberEvents = sanitizeSubscriberEvents(eventHandlers);
+      this.subscriberEvents = expandStreamEvents(sanitizeSubscriberEvents(eventHandlers));
       OT.setJSComponentEvents(this.componentEventsArray);
-      setNativeEvents(subscriberEvents);
+      setNativeEvents(this.subscriberEvents);
     }
   }
   componentDidUpdate() {
     const { streamProperties } = this.props;
     if (!isEqual(this.state.streamProperties, streamProperties)) {
-      each(streamProperties, (individualStreamProperties, streamId) => {
-        const { subscribeToAudio, subscribeToVideo } = individualStreamProperties;
-        OT.subscribeToAudio(streamId, subscribeToAudio);
-        OT.subscribeToVideo(streamId, subscribeToVideo);
-      });
+      if (Platform.OS === 'android') {
+        this.updateMediaStates(streamProperties);
+      } else {
+        each(streamProperties, (individualStreamProperties, streamId) => {
+          const { subscribeToAudio, subscribeToVideo } = individualStreamProperties;
+          OT.subscribeToAudio(streamId, subscribeToAudio);
+          OT.subscribeToVideo(streamId, subscribeToVideo);
+        });
+      }
       this.setState({ streamProperties });
     }
   }
+  updateMediaStates = (streamProperties) => {
+    // Only the streams this component subscribed to can be toggled natively
+    const changes = [];
+    each(streamProperties, (individualStreamProperties, streamId) => {
+      if (this.state.streams.indexOf(streamId) === -1) {
+        return;
+      }
+      const { subscribeToAudio, subscribeToVideo } = individualStreamProperties;
+      const change = { id: streamId };
+      if (isBoolean(subscribeToAudio)) {
+        change.audio = subscribeToAudio;
+      }
+      if (isBoolean(subscribeToVideo)) {
+        change.video = subscribeToVideo;
+      }
+      changes.push(change);
+    });
+    if (changes.length > 0) {
+      OT.setMediaStates(changes, (error) => {
+        if (error) {
+          this.otrnEventHandler(error);
+        }
+      });
+    }
+  }
   componentWillUnmount() {
+    clearTimeout(this.subscriptionsTimeout);
+    clearTimeout(this.removalsTimeout);
     this.streamCreated.remove();
     this.streamDestroyed.remove();
     OT.removeJSComponentEvents(this.componentEventsArray);
-    const events = sanitizeSubscriberEvents(this.props.eventHandlers);
-    removeNativeEvents(events);
+    removeNativeEvents(this.subscriberEvents);
   }
   streamCreatedHandler = (stream) => {
     const { subscribeToSelf } = this.state;
@@ -60,9 +93,16 @@ export default class OTSubscriber extends Component {
     const { sessionId, sessionInfo } = this.context;
     const subscriberProperties = isNull(streamProperties[stream.streamId]) ?
                                   sanitizeProperties(properties) : sanitizeProperties(streamProperties[stream.streamId]);
+    // Raw stats events are only generated natively when they are handled or explicitly requested
+    const { audioNetworkStats, videoNetworkStats } = this.props.eventHandlers;
+    if (audioNetworkStats || videoNetworkStats) {
+      subscriberProperties.networkStatsEvents = true;
+    }
     // Subscribe to streams. If subscribeToSelf is true, subscribe also to his own stream
     const sessionInfoConnectionId = sessionInfo && sessionInfo.connection ? sessionInfo.connection.connectionId : null;
-    if (subscribeToSelf || (sessionInfoConnectionId !== stream.connectionId)){
+    if (Platform.OS === 'android' && (subscribeToSelf || (sessionInfoConnectionId !== stream.connectionId))) {
+      this.queueSubscription(stream.streamId, subscriberProperties);
+    } else if (subscribeToSelf || (sessionInfoConnectionId !== stream.connectionId)){
       OT.subscribeToStream(stream.streamId, sessionId, subscriberProperties, (error) => {
         if (error) {
           this.otrnEventHandler(error);
@@ -74,7 +114,59 @@ export default class OTSubscriber extends Component {
       });
     }
   }
+  // Streams created or destroyed in the same burst (e.g. when joining a busy session) share one bridge call
+  queueSubscription = (streamId, properties) => {
+    this.pendingSubscriptions.push({ streamId, properties });
+    if (this.pendingSubscriptions.length === 1) {
+      this.subscriptionsTimeout = setTimeout(this.flushSubscriptions, 0);
+    }
+  }
+  flushSubscriptions = () => {
+    const { sessionId } = this.context;
+    const subscriptions = this.pendingSubscriptions;
+    this.pendingSubscriptions = [];
+    OT.subscribeToStreams(sessionId, subscriptions, (error, results) => {
+      if (error) {
+        this.otrnEventHandler(error);
+        return;
+      }
+      const subscribedStreams = [];
+      each(results, (result) => {
+        if (result.error) {
+          this.otrnEventHandler(result.error);
+        } else {
+          subscribedStreams.push(result.streamId);
+        }
+      });
+      this.setState({
+        streams: [...this.state.streams, ...subscribedStreams],
+      });
+    });
+  }
+  queueRemoval = (streamId) => {
+    this.pendingRemovals.push(streamId);
+    if (this.pendingRemovals.length === 1) {
+      this.removalsTimeout = setTimeout(this.flushRemovals, 0);
+    }
+  }
+  flushRemovals = () => {
+    const streamIds = this.pendingRemovals;
+    this.pendingRemovals = [];
+    OT.removeSubscribers(streamIds, (error, removedStreamIds) => {
+      if (error) {
+        this.otrnEventHandler(error);
+      } else {
+        this.setState({
+          streams: this.state.streams.filter(streamId => removedStreamIds.indexOf(streamId) === -1),
+        });
+      }
+    });
+  }
   streamDestroyedHandler = (stream) => {
+    if (Platform.OS === 'android') {
+      this.queueRemoval(stream.streamId);
+      return;
+    }
     OT.removeSubscriber(stream.streamId, (error) => {
       if (error) {
         this.otrnEventHandler(error);
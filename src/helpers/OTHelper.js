@@ -3,7 +3,9 @@ import { handleError } from '../OTError';
 import { each } from 'underscore';
 import axios from 'axios';
 
-const reassignEvents = (type, customEvents, events, eventKey) => {
+// onDemandEvents are only registered natively when a handler is supplied,
+// so high-frequency events are not computed for the default no-op handler
+const reassignEvents = (type, customEvents, events, eventKey, onDemandEvents = []) => {
   const newEvents = {};
   const preface = `${type}:`;
   const platform = Platform.OS;
@@ -21,7 +23,10 @@ const reassignEvents = (type, customEvents, events, eventKey) => {
   });
 
   // Set a default handler
-  each(customEvents[platform], (event) => {
+  each(customEvents[platform], (event, eventType) => {
+    if (onDemandEvents.includes(eventType)) {
+      return;
+    }
     if (eventKey !== undefined && !newEvents[`${eventKey}:${preface}${event}`]) {
       newEvents[`${eventKey}:${preface}${event}`] = () => { };
     }
@@ -32,6 +37,8 @@ const reassignEvents = (type, customEvents, events, eventKey) => {
 
 const sanitizeBooleanProperty = property => (property || property === undefined ? true : property);
 
+const sanitizeNumberProperty = (property, defaultValue) => (typeof property === 'number' ? property : defaultValue);
+
 const getOtrnErrorEventHandler = (events) => {
   let otrnEventHandler = event => {
     handleError(event);
@@ -85,6 +92,7 @@ const logOT = ({ apiKey, sessionId, action, connectionId, proxyUrl }) => {
 
 export {
   sanitizeBooleanProperty,
+  sanitizeNumberProperty,
   reassignEvents,
   logOT,
   getOtrnErrorEventHandler,
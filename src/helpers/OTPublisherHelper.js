@@ -1,4 +1,4 @@
-import { sanitizeBooleanProperty, reassignEvents } from './OTHelper';
+import { sanitizeBooleanProperty, sanitizeNumberProperty, reassignEvents } from './OTHelper';
 
 const sanitizeResolution = (resolution) => {
   switch (resolution) {
@@ -30,6 +30,17 @@ const sanitizeCameraPosition = (cameraPosition = 'front') => (cameraPosition ===
 
 const sanitizeVideoSource = (videoSource = 'camera') => (videoSource === 'camera' ? 'camera' : 'screen');
 
+const sanitizeScreenCaptureRect = (rect) => {
+  if (typeof rect !== 'object' || rect === null) {
+    return null;
+  }
+  const { x = 0, y = 0, width, height } = rect;
+  if (typeof width !== 'number' || typeof height !== 'number' || typeof x !== 'number' || typeof y !== 'number') {
+    return null;
+  }
+  return { x, y, width, height };
+};
+
 const sanitizeAudioBitrate = (audioBitrate = 40000) =>
   (audioBitrate < 80000 || audioBitrate > 128000 ? 40000 : audioBitrate);
 
@@ -47,6 +58,11 @@ const sanitizeProperties = (properties) => {
       frameRate: 30,
       resolution: sanitizeResolution(),
       videoSource: 'camera',
+      screenKeepAliveInterval: 1000,
+      screenCaptureResolution: '',
+      screenCaptureFrameRate: 15,
+      screenCaptureViewTag: 0,
+      screenCaptureRect: null,
     };
   }
   return {
@@ -61,6 +77,12 @@ const sanitizeProperties = (properties) => {
     frameRate: sanitizeFrameRate(properties.frameRate),
     resolution: sanitizeResolution(properties.resolution),
     videoSource: sanitizeVideoSource(properties.videoSource),
+    screenKeepAliveInterval: sanitizeNumberProperty(properties.screenKeepAliveInterval, 1000),
+    // Screen sharing keeps the native size and 15 fps unless these were set explicitly
+    screenCaptureResolution: properties.resolution ? sanitizeResolution(properties.resolution) : '',
+    screenCaptureFrameRate: properties.frameRate ? sanitizeFrameRate(properties.frameRate) : 15,
+    screenCaptureViewTag: sanitizeNumberProperty(properties.screenCaptureViewTag, 0),
+    screenCaptureRect: sanitizeScreenCaptureRect(properties.screenCaptureRect),
   };
 };
 
@@ -82,7 +104,8 @@ const sanitizePublisherEvents = (publisherId, events) => {
       audioLevel: 'onAudioLevelUpdated',
     },
   };
-  return reassignEvents('publisher', customEvents, events, publisherId);
+  const onDemandEvents = ['audioLevel'];
+  return reassignEvents('publisher', customEvents, events, publisherId, onDemandEvents);
 };
 
 export {
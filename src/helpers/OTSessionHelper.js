@@ -1,7 +1,7 @@
 import { Platform } from 'react-native';
 import { reassignEvents } from './OTHelper';
 import { handleSignalError, handleError } from '../OTError';
-import { each, isNull, isEmpty, isString, isBoolean, isObject } from 'underscore';
+import { each, isNull, isEmpty, isString, isBoolean, isObject, isNumber } from 'underscore';
 
 const validateString = value => (isString(value) ? value : '');
 
@@ -9,6 +9,8 @@ const validateBoolean = value => (isBoolean(value) ? value : false);
 
 const validateObject = value => (isObject(value) ? value : {});
 
+const validateNumber = value => (isNumber(value) ? value : 0);
+
 const sanitizeSessionEvents = (sessionId, events) => {
   if (typeof events !== 'object') {
     return {};
@@ -43,9 +45,14 @@ const sanitizeSessionEvents = (sessionId, events) => {
       archiveStarted: 'onArchiveStarted',
       archiveStopped: 'onArchiveStopped',
       streamPropertyChanged: 'onStreamPropertyChanged',
+      audioLevels: 'onAudioLevels',
+      activeSpeakerChanged: 'onActiveSpeakerChanged',
+      connectionCountChanged: 'onConnectionCountChanged',
+      videoAdmissionChanged: 'onVideoAdmissionChanged',
     },
   };
-  return reassignEvents('session', customEvents, events, sessionId);
+  const onDemandEvents = ['audioLevels', 'activeSpeakerChanged', 'connectionCountChanged', 'videoAdmissionChanged'];
+  return reassignEvents('session', customEvents, events, sessionId, onDemandEvents);
 };
 
 
@@ -63,6 +70,15 @@ const sanitizeSessionOptions = (options) => {
       useTextureViews: false,
       androidOnTop: '', // 'publisher' || 'subscriber'
       androidZOrder: '', // 'mediaOverlay' || 'onTop'
+      enableEventBatching: false,
+      eventBatchInterval: 16,
+      audioLevelRate: 10,
+      compactEvents: false,
+      largeSession: false,
+      connectionIndexCapacity: 1000,
+      connectionCountInterval: 1000,
+      maxVideoSubscribers: 0,
+      suspendVideoInBackground: false,
     }
   } else {
     sessionOptions = {
@@ -90,6 +106,15 @@ const sanitizeSessionOptions = (options) => {
       isCamera2Capable: 'boolean',
       androidOnTop: 'string',
       androidZOrder: 'string',
+      enableEventBatching: 'boolean',
+      eventBatchInterval: 'number',
+      audioLevelRate: 'number',
+      compactEvents: 'boolean',
+      largeSession: 'boolean',
+      connectionIndexCapacity: 'number',
+      connectionCountInterval: 'number',
+      maxVideoSubscribers: 'number',
+      suspendVideoInBackground: 'boolean',
       ipWhitelist: 'boolean',
       iceConfig: 'object',
       proxyUrl: 'string',
@@ -105,6 +130,8 @@ const sanitizeSessionOptions = (options) => {
         sessionOptions[key] = validateString(value);
       } else if (optionType === 'object') {
         sessionOptions[key] = validateObject(value)
+      } else if (optionType === 'number') {
+        sessionOptions[key] = validateNumber(value);
       }
     } else {
       handleError(`${key} is not a valid option`);
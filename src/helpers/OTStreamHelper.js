@@ -0,0 +1,85 @@
+import { each, find, isObject } from 'underscore';
+import { nativeEvents } from '../OT';
+
+// Streams of every tracked session, keyed by sessionId and then streamId. Used
+// to resolve the streamId carried by compact events back into the full stream
+// object. A session's table exists from trackSessionStreams until clearSessionStreams.
+const sessionStreams = {};
+
+const addStream = (sessionId, stream) => {
+  const streams = sessionStreams[sessionId];
+  if (streams && isObject(stream)) {
+    streams[stream.streamId] = stream;
+  }
+};
+
+const removeStream = (sessionId, stream) => {
+  const streams = sessionStreams[sessionId];
+  if (streams && isObject(stream)) {
+    delete streams[stream.streamId];
+  }
+};
+
+const updateStream = (sessionId, { streamId, changedProperty, newValue }) => {
+  const streams = sessionStreams[sessionId];
+  const stream = streams && streams[streamId];
+  if (!stream) {
+    return;
+  }
+  if (changedProperty === 'videoDimensions') {
+    streams[streamId] = { ...stream, width: newValue.width, height: newValue.height };
+  } else if (changedProperty === 'videoType') {
+    streams[streamId] = { ...stream, videoType: newValue === 'StreamVideoTypeScreen' ? 'screen' : 'camera' };
+  } else {
+    streams[streamId] = { ...stream, [changedProperty]: newValue };
+  }
+};
+
+// Subscriber events are not scoped to a session, so every tracked session is searched
+const findStream = (streamId) => {
+  const streams = find(sessionStreams, sessionTable => sessionTable[streamId] !== undefined);
+  return streams ? streams[streamId] : undefined;
+};
+
+const expandStreamEvent = (event) => {
+  if (!isObject(event) || event.stream) {
+    return event;
+  }
+  const stream = findStream(event.streamId);
+  return stream ? { ...event, stream } : event;
+};
+
+const expandStreamEvents = (events) => {
+  const expandedEvents = {};
+  each(events, (eventHandler, eventType) => {
+    expandedEvents[eventType] = event => eventHandler(expandStreamEvent(event));
+  });
+  return expandedEvents;
+};
+
+const trackSessionStreams = (sessionId) => {
+  sessionStreams[sessionId] = sessionStreams[sessionId] || {};
+  return [
+    nativeEvents.addListener(`${sessionId}:session:onStreamReceived`, stream => addStream(sessionId, stream)),
+    nativeEvents.addListener(`${sessionId}:session:onStreamPropertyChanged`, event => updateStream(sessionId, event)),
+    nativeEvents.addListener(`${sessionId}:session:onStreamDropped`, stream => removeStream(sessionId, stream)),
+  ];
+};
+
+// The session never reports its own publisher's stream, so the publisher adds it. Ignored unless the session is tracked.
+const trackPublisherStreams = (sessionId, publisherId) => [
+  nativeEvents.addListener(`${publisherId}:publisher:onStreamCreated`, stream => addStream(sessionId, stream)),
+  nativeEvents.addListener(`${publisherId}:publisher:onStreamDestroyed`, stream => removeStream(sessionId, stream)),
+];
+
+const clearSessionStreams = (sessionId) => {
+  delete sessionStreams[sessionId];
+};
+
+export {
+  expandStreamEvent,
+  expandStreamEvents,
+  trackSessionStreams,
+  trackPublisherStreams,
+  clearSessionStreams,
+};
@@ -1,4 +1,4 @@
-import { sanitizeBooleanProperty, reassignEvents } from './OTHelper';
+import { sanitizeBooleanProperty, sanitizeNumberProperty, reassignEvents } from './OTHelper';
 
 const sanitizeSubscriberEvents = (events) => {
   if (typeof events !== 'object') {
@@ -32,6 +32,8 @@ const sanitizeSubscriberEvents = (events) => {
       videoDisableWarning: 'onVideoDisableWarning',
       videoDisableWarningLifted: 'onVideoDisableWarningLifted',
       videoDataReceived: 'onVideoDataReceived',
+      networkStatsSummary: 'onNetworkStatsSummary',
+      visibilityChanged: 'onVisibilityChanged',
     },
   };
   return reassignEvents('subscriber', customEvents, events);
@@ -42,11 +44,19 @@ const sanitizeProperties = (properties) => {
     return {
       subscribeToAudio: true,
       subscribeToVideo: true,
+      networkStatsSummaryInterval: 5000,
+      networkStatsEvents: false,
+      pauseVideoWhenHidden: false,
+      autoPreferredResolution: true,
     };
   }
   return {
     subscribeToAudio: sanitizeBooleanProperty(properties.subscribeToAudio),
     subscribeToVideo: sanitizeBooleanProperty(properties.subscribeToVideo),
+    networkStatsSummaryInterval: sanitizeNumberProperty(properties.networkStatsSummaryInterval, 5000),
+    networkStatsEvents: properties.networkStatsEvents === true,
+    pauseVideoWhenHidden: properties.pauseVideoWhenHidden === true,
+    autoPreferredResolution: sanitizeBooleanProperty(properties.autoPreferredResolution),
   };
 };
 
@@ -0,0 +1,123 @@
+import { nativeEvents } from '../src/OT';
+import { expandStreamEvent, expandStreamEvents, trackSessionStreams, trackPublisherStreams,
+  clearSessionStreams } from '../src/helpers/OTStreamHelper';
+
+jest.mock('../src/OT', () => {
+  const listeners = {};
+  return {
+    nativeEvents: {
+      addListener: jest.fn((eventType, handler) => {
+        listeners[eventType] = handler;
+        return { remove: jest.fn() };
+      }),
+      emit: (eventType, data) => listeners[eventType] && listeners[eventType](data),
+    },
+  };
+});
+
+describe('OTStreamHelper', () => {
+  const sessionId = 'fakeSessionId';
+  const stream = {
+    streamId: 'fakeStreamId',
+    hasAudio: true,
+    hasVideo: true,
+    width: 640,
+    height: 480,
+    videoType: 'camera',
+  };
+
+  afterEach(() => {
+    clearSessionStreams(sessionId);
+    clearSessionStreams('otherSessionId');
+  });
+
+  describe('expandStreamEvents', () => {
+    it('should pass events of untracked streams through unchanged', () => {
+      const handler = jest.fn();
+      const event = { streamId: 'unknownStreamId' };
+      expandStreamEvents({ 'subscriber:onConnected': handler })['subscriber:onConnected'](event);
+      expect(handler).toHaveBeenCalledWith(event);
+    });
+
+    it('should resolve the streamId of a tracked stream', () => {
+      trackSessionStreams(sessionId);
+      nativeEvents.emit(`${sessionId}:session:onStreamReceived`, stream);
+      const handler = jest.fn();
+      expandStreamEvents({ 'subscriber:onConnected': handler })['subscriber:onConnected']({ streamId: stream.streamId });
+      expect(handler).toHaveBeenCalledWith({ streamId: stream.streamId, stream });
+    });
+
+    it('should keep a stream that is already present', () => {
+      trackSessionStreams(sessionId);
+      nativeEvents.emit(`${sessionId}:session:onStreamReceived`, stream);
+      const event = { streamId: stream.streamId, stream: { streamId: stream.streamId } };
+      expect(expandStreamEvent(event)).toBe(event);
+    });
+
+    it('should leave non object events alone', () => {
+      expect(expandStreamEvent('fakeStreamId')).toBe('fakeStreamId');
+    });
+  });
+
+  describe('trackSessionStreams', () => {
+    beforeEach(() => {
+      trackSessionStreams(sessionId);
+      nativeEvents.emit(`${sessionId}:session:onStreamReceived`, stream);
+    });
+
+    it('should apply property changes to the tracked stream', () => {
+      nativeEvents.emit(`${sessionId}:session:onStreamPropertyChanged`, {
+        streamId: stream.streamId, changedProperty: 'hasVideo', oldValue: true, newValue: false,
+      });
+      nativeEvents.emit(`${sessionId}:session:onStreamPropertyChanged`, {
+        streamId: stream.streamId, changedProperty: 'videoDimensions', newValue: { width: 1280, height: 720 },
+      });
+      nativeEvents.emit(`${sessionId}:session:onStreamPropertyChanged`, {
+        streamId: stream.streamId, changedProperty: 'videoType', newValue: 'StreamVideoTypeScreen',
+      });
+      expect(expandStreamEvent({ streamId: stream.streamId }).stream).toEqual({
+        ...stream, hasVideo: false, width: 1280, height: 720, videoType: 'screen',
+      });
+    });
+
+    it('should forget dropped streams', () => {
+      nativeEvents.emit(`${sessionId}:session:onStreamDropped`, stream);
+      expect(expandStreamEvent({ streamId: stream.streamId }).stream).toBeUndefined();
+    });
+
+    it('should forget every stream of a cleared session', () => {
+      clearSessionStreams(sessionId);
+      nativeEvents.emit(`${sessionId}:session:onStreamReceived`, { ...stream, streamId: 'lateStreamId' });
+      expect(expandStreamEvent({ streamId: stream.streamId }).stream).toBeUndefined();
+      expect(expandStreamEvent({ streamId: 'lateStreamId' }).stream).toBeUndefined();
+    });
+
+    it('should keep the streams of other sessions', () => {
+      const otherStream = { ...stream, streamId: 'otherStreamId' };
+      trackSessionStreams('otherSessionId');
+      nativeEvents.emit('otherSessionId:session:onStreamReceived', otherStream);
+      clearSessionStreams(sessionId);
+      expect(expandStreamEvent({ streamId: otherStream.streamId }).stream).toEqual(otherStream);
+    });
+  });
+
+  describe('trackPublisherStreams', () => {
+    const publisherId = 'fakePublisherId';
+    const publisherStream = { ...stream, streamId: 'publisherStreamId' };
+
+    it('should track the publisher stream of a tracked session', () => {
+      trackSessionStreams(sessionId);
+      trackPublisherStreams(sessionId, publisherId);
+      nativeEvents.emit(`${publisherId}:publisher:onStreamCreated`, publisherStream);
+      expect(expandStreamEvent({ streamId: publisherStream.streamId }).stream).toEqual(publisherStream);
+      nativeEvents.emit(`${publisherId}:publisher:onStreamDestroyed`, publisherStream);
+      expect(expandStreamEvent({ streamId: publisherStream.streamId }).stream).toBeUndefined();
+    });
+
+    it('should ignore the publisher stream of an untracked session', () => {
+      trackPublisherStreams(sessionId, publisherId);
+      nativeEvents.emit(`${publisherId}:publisher:onStreamCreated`, publisherStream);
+      expect(expandStreamEvent({ streamId: publisherStream.streamId }).stream).toBeUndefined();
+    });
+  });
+});
@@ -0,0 +1,182 @@
+import React from 'react';
+import renderer, { act } from 'react-test-renderer';
+import { Platform } from 'react-native';
+
+import OTSubscriber from '../src/OTSubscriber';
+import OTContext from '../src/contexts/OTContext';
+import { OT } from '../src/OT';
+
+jest.mock('../src/OT', () => ({
+  OT: {
+    setJSComponentEvents: jest.fn(),
+    removeJSComponentEvents: jest.fn(),
+    subscribeToStreams: jest.fn(),
+    removeSubscribers: jest.fn(),
+  },
+  nativeEvents: {
+    addListener: jest.fn(() => ({ remove: jest.fn() })),
+  },
+  setNativeEvents: jest.fn(),
+  removeNativeEvents: jest.fn(),
+}));
+
+describe('OTSubscriber batched subscriptions', () => {
+  describe('on Android', () => {
+    const sessionId = 'fakeSessionId';
+    const sessionInfo = { connection: { connectionId: 'fakeConnectionId' } };
+    const platform = Platform.OS;
+    let otrnError;
+    let subscriberComponent;
+    let instance;
+
+    const stream = streamId => ({ streamId, connectionId: `${streamId}-connection` });
+
+    beforeAll(() => {
+      Platform.OS = 'android';
+    });
+
+    afterAll(() => {
+      Platform.OS = platform;
+    });
+
+    beforeEach(() => {
+      jest.useFakeTimers();
+      OT.subscribeToStreams.mockReset();
+      OT.removeSubscribers.mockReset();
+      otrnError = jest.fn();
+      subscriberComponent = renderer.create(
+        <OTContext.Provider value={{ sessionId, sessionInfo }}>
+          <OTSubscriber eventHandlers={{ otrnError }}>
+            {() => null}
+          </OTSubscriber>
+        </OTContext.Provider>
+      );
+      instance = subscriberComponent.root.findByType(OTSubscriber).instance;
+    });
+
+    describe('when streams are created', () => {
+      it('should subscribe to every stream created in the same tick with one call', () => {
+        instance.streamCreatedHandler(stream('streamA'));
+        instance.streamCreatedHandler(stream('streamB'));
+        expect(OT.subscribeToStreams).not.toHaveBeenCalled();
+
+        jest.runAllTimers();
+
+        expect(OT.subscribeToStreams).toHaveBeenCalledTimes(1);
+        const [calledSessionId, subscriptions] = OT.subscribeToStreams.mock.calls[0];
+        expect(calledSessionId).toBe(sessionId);
+        expect(subscriptions.map(subscription => subscription.streamId)).toEqual(['streamA', 'streamB']);
+      });
+
+      it('should start a new batch for streams created after a flush', () => {
+        instance.streamCreatedHandler(stream('streamA'));
+        jest.runAllTimers();
+        instance.streamCreatedHandler(stream('streamB'));
+        jest.runAllTimers();
+
+        expect(OT.subscribeToStreams).toHaveBeenCalledTimes(2);
+      });
+
+      it('should not subscribe to its own stream', () => {
+        instance.streamCreatedHandler({ streamId: 'ownStream', connectionId: 'fakeConnectionId' });
+        jest.runAllTimers();
+
+        expect(OT.subscribeToStreams).not.toHaveBeenCalled();
+      });
+
+      it('should keep the streams that subscribed and report the ones that failed', () => {
+        const error = { message: 'Error subscribing.' };
+        OT.subscribeToStreams.mockImplementation((calledSessionId, subscriptions, callback) => {
+          callback(null, [{ streamId: 'streamA' }, { streamId: 'streamB', error }]);
+        });
+        instance.streamCreatedHandler(stream('streamA'));
+        instance.streamCreatedHandler(stream('streamB'));
+
+        act(() => {
+          jest.runAllTimers();
+        });
+
+        expect(instance.state.streams).toEqual(['streamA']);
+        expect(otrnError).toHaveBeenCalledTimes(1);
+        expect(otrnError).toHaveBeenCalledWith(error);
+      });
+
+      it('should report an error for the whole batch', () => {
+        const error = { message: 'Error subscribing.' };
+        OT.subscribeToStreams.mockImplementation((calledSessionId, subscriptions, callback) => {
+          callback(error);
+        });
+        instance.streamCreatedHandler(stream('streamA'));
+
+        act(() => {
+          jest.runAllTimers();
+        });
+
+        expect(instance.state.streams).toEqual([]);
+        expect(otrnError).toHaveBeenCalledWith(error);
+      });
+
+      it('should drop pending subscriptions when unmounted', () => {
+        instance.streamCreatedHandler(stream('streamA'));
+        subscriberComponent.unmount();
+        jest.runAllTimers();
+
+        expect(OT.subscribeToStreams).not.toHaveBeenCalled();
+      });
+    });
+
+    describe('when streams are destroyed', () => {
+      beforeEach(() => {
+        OT.subscribeToStreams.mockImplementation((calledSessionId, subscriptions, callback) => {
+          callback(null, subscriptions.map(({ streamId }) => ({ streamId })));
+        });
+        instance.streamCreatedHandler(stream('streamA'));
+        instance.streamCreatedHandler(stream('streamB'));
+        instance.streamCreatedHandler(stream('streamC'));
+        act(() => {
+          jest.runAllTimers();
+        });
+      });
+
+      it('should remove every stream destroyed in the same tick with one call', () => {
+        instance.streamDestroyedHandler(stream('streamA'));
+        instance.streamDestroyedHandler(stream('streamB'));
+        expect(OT.removeSubscribers).not.toHaveBeenCalled();
+
+        jest.runAllTimers();
+
+        expect(OT.removeSubscribers).toHaveBeenCalledTimes(1);
+        expect(OT.removeSubscribers.mock.calls[0][0]).toEqual(['streamA', 'streamB']);
+      });
+
+      it('should only drop the streams that were removed', () => {
+        OT.removeSubscribers.mockImplementation((streamIds, callback) => {
+          callback(null, ['streamA']);
+        });
+        instance.streamDestroyedHandler(stream('streamA'));
+        instance.streamDestroyedHandler(stream('streamB'));
+
+        act(() => {
+          jest.runAllTimers();
+        });
+
+        expect(instance.state.streams).toEqual(['streamB', 'streamC']);
+      });
+
+      it('should report an error and keep its streams when the removal fails', () => {
+        const error = { message: 'Error removing subscribers.' };
+        OT.removeSubscribers.mockImplementation((streamIds, callback) => {
+          callback(error);
+        });
+        instance.streamDestroyedHandler(stream('streamA'));
+
+        act(() => {
+          jest.runAllTimers();
+        });
+
+        expect(instance.state.streams).toEqual(['streamA', 'streamB', 'streamC']);
+        expect(otrnError).toHaveBeenCalledWith(error);
+      });
+    });
+  });
+});